@@ -3,4 +3,56 @@ package com.dellpoc.constants;
 public class FrameworkConstants {
     public static final String CHROME_DRIVER_PATH = "path/to/chromedriver";
     public static final int DEFAULT_TIMEOUT = 30;
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+    public static final int DEFAULT_SAMPLE_LIMIT = 20;
+
+    public static final int POOL_MIN_SIZE = 1;
+    public static final int POOL_MAX_SIZE = 10;
+    public static final long POOL_BORROW_TIMEOUT_MS = 30_000;
+    public static final int POOL_VALIDATION_TIMEOUT_SECONDS = 5;
+    public static final long POOL_IDLE_TIMEOUT_MS = 300_000;
+    public static final long POOL_LEAK_THRESHOLD_MS = 600_000;
+    public static final long POOL_HOUSEKEEPING_INTERVAL_MS = 30_000;
+    public static final long POOL_WARMUP_TIMEOUT_MS = 10_000;
+
+    public static final int STATEMENT_CACHE_SIZE = 100;
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    public static final int DEFAULT_COMMIT_INTERVAL = 10_000;
+    public static final int BULK_BATCH_SIZE = 10_000;
+    public static final int BULK_COPY_BUFFER_CHARS = 64 * 1024;
+    public static final long SPILL_MEMORY_BUDGET_BYTES = 128L * 1024 * 1024;
+    public static final int SPILL_MERGE_FAN_IN = 64;
+
+    public static final long DUPLICATE_CHECK_MEMORY_BYTES = 256L * 1024 * 1024;
+
+    public static final int CHECKSUM_FANOUT = 16;
+    public static final long CHECKSUM_LEAF_ROWS = 1000;
+
+    public static final long QUERY_CACHE_TTL_MS = 300_000;
+    public static final int QUERY_CACHE_MAX_ENTRIES = 1000;
+
+    public static final int PARALLEL_QUERY_THREADS = 16;
+
+    public static final int SAMPLING_BUCKETS = 10_007;
+    public static final int SAMPLING_MULTIPLIER = 7_919;
+    public static final double SAMPLING_CONFIDENCE = 0.95;
+    public static final double SAMPLING_CONFIDENCE_Z = 1.96;
+
+    public static final long WATERMARK_LAG = 0;
+
+    public static final int PROFILE_HLL_PRECISION = 12;
+    public static final double PROFILE_COUNT_TOLERANCE = 0.0;
+    public static final double PROFILE_VALUE_TOLERANCE = 1e-9;
+    public static final double PROFILE_DISTINCT_TOLERANCE = 0.05;
+    public static final double PROFILE_HISTOGRAM_TOLERANCE = 0.0;
+
+    public static final int COMPARE_NUMERIC_SCALE = -1;
+    public static final boolean COMPARE_TRIM_STRINGS = false;
+    public static final boolean COMPARE_IGNORE_CASE = false;
+    public static final int COMPARE_TIMESTAMP_PRECISION = 6;
+    public static final boolean COMPARE_EMPTY_AS_NULL = false;
+
+    public static final long SPARK_PARTITION_BYTES = 64L * 1024 * 1024;
+    public static final int SPARK_MAX_SHUFFLE_PARTITIONS = 2000;
 }
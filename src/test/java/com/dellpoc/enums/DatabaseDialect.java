@@ -0,0 +1,160 @@
+package com.dellpoc.enums;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+public enum DatabaseDialect {
+    ORACLE,
+    MYSQL,
+    SQLSERVER,
+    POSTGRES,
+    GENERIC;
+
+    /**
+     * Resolves the dialect from a JDBC URL. MemSQL, AWS RDS and Google Cloud SQL use the MySQL protocol.
+     *
+     * @param url The JDBC URL.
+     * @return The matching dialect, or GENERIC if the URL is not recognised.
+     */
+    public static DatabaseDialect fromUrl(String url) {
+        if (url == null) {
+            return GENERIC;
+        }
+        String lower = url.toLowerCase();
+        if (lower.startsWith("jdbc:oracle:")) {
+            return ORACLE;
+        } else if (lower.startsWith("jdbc:mysql:") || lower.startsWith("jdbc:mariadb:") || lower.startsWith("jdbc:singlestore:")) {
+            return MYSQL;
+        } else if (lower.startsWith("jdbc:sqlserver:")) {
+            return SQLSERVER;
+        } else if (lower.startsWith("jdbc:postgresql:")) {
+            return POSTGRES;
+        }
+        return GENERIC;
+    }
+
+    /**
+     * Resolves the dialect of an open connection from its JDBC URL.
+     *
+     * @param conn The database connection.
+     * @return The matching dialect, or GENERIC if the URL is not recognised.
+     * @throws SQLException If the connection metadata cannot be read.
+     */
+    public static DatabaseDialect fromConnection(Connection conn) throws SQLException {
+        return fromUrl(conn.getMetaData().getURL());
+    }
+
+    /**
+     * Sets the fetch behaviour of a statement for this dialect.
+     * Oracle, SQL Server and Postgres honour the fetch size; the MySQL driver (MemSQL, RDS, Cloud SQL)
+     * buffers the whole result unless the fetch size is Integer.MIN_VALUE, which streams row by row
+     * but blocks other statements on the connection until the result is closed.
+     *
+     * @param stm       The statement to configure.
+     * @param fetchSize The number of rows per round trip.
+     * @param streaming True if the caller reads the whole result before issuing another statement on the connection.
+     * @throws SQLException If the fetch size cannot be set.
+     */
+    public void configureFetch(Statement stm, int fetchSize, boolean streaming) throws SQLException {
+        if (this == MYSQL) {
+            if (streaming) {
+                stm.setFetchSize(Integer.MIN_VALUE);
+            }
+            return;
+        }
+        stm.setFetchSize(fetchSize);
+    }
+
+    /**
+     * @return True if the driver only honours the fetch size inside a transaction (auto-commit off).
+     */
+    public boolean needsTransactionForCursor() {
+        return this == POSTGRES;
+    }
+
+    /**
+     * Limits a SELECT statement to the first rows using the dialect's syntax.
+     *
+     * @param select The SELECT statement, starting with "SELECT ".
+     * @param rows   The maximum number of rows.
+     * @return The limited statement.
+     */
+    public String limit(String select, int rows) {
+        switch (this) {
+            case MYSQL:
+            case POSTGRES:
+                return select + " LIMIT " + rows;
+            case SQLSERVER:
+                return "SELECT TOP " + rows + " " + select.substring("SELECT ".length());
+            default:
+                return select + " FETCH FIRST " + rows + " ROWS ONLY";
+        }
+    }
+
+    /**
+     * Builds a non-negative modulo expression with the same semantics on every dialect.
+     *
+     * @param expression The integral SQL expression.
+     * @param divisor    The divisor.
+     * @return The SQL expression.
+     */
+    public String modulo(String expression, int divisor) {
+        if (this == SQLSERVER) {
+            return "ABS(" + expression + " % " + divisor + ")";
+        }
+        return "ABS(MOD(" + expression + ", " + divisor + "))";
+    }
+
+    /**
+     * Wraps a character column so that ORDER BY sorts it by code point, the order Java's String.compareTo uses,
+     * instead of by the database's default (often linguistic or case-insensitive) collation.
+     *
+     * @param column The character column or expression.
+     * @return The SQL sort expression.
+     */
+    public String binaryOrder(String column) {
+        switch (this) {
+            case ORACLE:
+                return "NLSSORT(" + column + ", 'NLS_SORT=BINARY')";
+            case MYSQL:
+                return "BINARY " + column;
+            case SQLSERVER:
+                return column + " COLLATE Latin1_General_BIN2";
+            case POSTGRES:
+                return column + " COLLATE \"C\"";
+            default:
+                return column;
+        }
+    }
+
+    /**
+     * Renders a value as a SQL literal in this dialect's syntax.
+     *
+     * @param value A Number, Timestamp or String.
+     * @return The SQL literal.
+     */
+    public String literal(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toPlainString();
+        }
+        if (value instanceof Number) {
+            return value.toString();
+        }
+        if (value instanceof Timestamp) {
+            String text = value.toString();
+            if (this == SQLSERVER) {
+                int dot = text.indexOf('.');
+                // DATETIME2 accepts at most 7 fractional digits
+                return "CAST('" + (dot >= 0 && text.length() - dot > 8 ? text.substring(0, dot + 8) : text) + "' AS DATETIME2)";
+            }
+            return "TIMESTAMP '" + text + "'";
+        }
+        return "'" + value.toString().replace("'", "''") + "'";
+    }
+}
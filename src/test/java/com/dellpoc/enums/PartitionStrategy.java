@@ -0,0 +1,6 @@
+package com.dellpoc.enums;
+
+public enum PartitionStrategy {
+    KEY_RANGE,
+    HASH_MODULO
+}
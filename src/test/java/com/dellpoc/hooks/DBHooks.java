@@ -0,0 +1,57 @@
+package com.dellpoc.hooks;
+
+import com.dellpoc.constants.FrameworkConstants;
+import com.dellpoc.utils.ConnectionWarmUp;
+import com.dellpoc.utils.CursorTracker;
+import com.dellpoc.utils.EnvironmentUtils;
+import com.dellpoc.utils.QueryMetrics;
+import io.cucumber.java.After;
+import io.cucumber.java.AfterAll;
+import io.cucumber.java.BeforeAll;
+import io.cucumber.java.Scenario;
+import net.serenitybdd.core.Serenity;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+
+public class DBHooks {
+
+    /**
+     * Connects to every database in the environment properties in parallel before the first scenario,
+     * failing the run if one is unreachable. Disable with -Ddb.warmUp=false.
+     */
+    @BeforeAll
+    public static void warmUpConnections() throws SQLException {
+        if (!Boolean.parseBoolean(System.getProperty("db.warmUp", "true"))
+                || !Files.exists(Paths.get(EnvironmentUtils.getPropertiesPath()))) {
+            return;
+        }
+        ConnectionWarmUp.warmUp(EnvironmentUtils.getDatabaseEndpoints(), FrameworkConstants.POOL_WARMUP_TIMEOUT_MS);
+    }
+
+    @After
+    public void closeLeakedCursors(Scenario scenario) {
+        int leaked = CursorTracker.closeLeaked();
+        if (leaked > 0) {
+            scenario.log("Closed " + leaked + " database statements that were left open");
+        }
+    }
+
+    @After
+    public void reportQueryMetrics() {
+        String summary = QueryMetrics.scenarioSummary();
+        if (summary != null) {
+            Serenity.recordReportData().withTitle("Database timings").andContents(summary);
+        }
+        QueryMetrics.resetScenario();
+    }
+
+    @AfterAll
+    public static void writeQueryMetrics() throws IOException {
+        if (QueryMetrics.isEnabled()) {
+            QueryMetrics.writeRunJson(Paths.get(System.getProperty("db.metricsFile", "build/db-metrics.json")));
+        }
+    }
+}
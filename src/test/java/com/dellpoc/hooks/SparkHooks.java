@@ -0,0 +1,12 @@
+package com.dellpoc.hooks;
+
+import com.dellpoc.utils.SparkSessionManager;
+import io.cucumber.java.AfterAll;
+
+public class SparkHooks {
+
+    @AfterAll
+    public static void stopSparkSession() {
+        SparkSessionManager.stop();
+    }
+}
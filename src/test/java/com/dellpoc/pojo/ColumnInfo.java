@@ -0,0 +1,51 @@
+package com.dellpoc.pojo;
+
+/**
+ * Name and type of one result or table column, as reported by the JDBC metadata.
+ */
+public class ColumnInfo {
+    private final String name;
+    private final int jdbcType;
+    private final String typeName;
+    private final int precision;
+    private final int scale;
+    private final boolean nullable;
+
+    public ColumnInfo(String name, int jdbcType, String typeName, int precision, int scale, boolean nullable) {
+        this.name = name;
+        this.jdbcType = jdbcType;
+        this.typeName = typeName;
+        this.precision = precision;
+        this.scale = scale;
+        this.nullable = nullable;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getJdbcType() {
+        return jdbcType;
+    }
+
+    public String getTypeName() {
+        return typeName;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public boolean isNullable() {
+        return nullable;
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + typeName + "(" + precision + "," + scale + ")" + (nullable ? "" : " NOT NULL");
+    }
+}
@@ -0,0 +1,223 @@
+package com.dellpoc.pojo;
+
+import com.dellpoc.utils.HashUtils;
+import com.dellpoc.utils.HyperLogLog;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.Date;
+
+/**
+ * Single-pass statistics for one result column, built from fixed-size sketches so that profiles of
+ * different partitions can be merged. Numeric columns get min, max, sum, mean and a histogram of values;
+ * dates and timestamps are profiled the same way as epoch seconds, so the numeric tolerance applies to them;
+ * other columns get the lexical min and max and a histogram of value lengths. Every column gets a null
+ * count and a HyperLogLog distinct-count estimate of its normalized values.
+ */
+public class ColumnProfile {
+
+    /**
+     * Histogram bins per sign: one per power of two between 2^-32 and 2^31, plus one bin for zero.
+     */
+    private static final int OCTAVES = 64;
+    private static final int MIN_EXPONENT = -32;
+    public static final int HISTOGRAM_BINS = 2 * OCTAVES + 1;
+
+    private final String name;
+    private long rowCount;
+    private long nullCount;
+    private long numericCount;
+    private double sum;
+    private double minNumber = Double.NaN;
+    private double maxNumber = Double.NaN;
+    private String minText;
+    private String maxText;
+    private final HyperLogLog distinct;
+    private final long[] histogram = new long[HISTOGRAM_BINS];
+
+    public ColumnProfile(String name, int hllPrecision) {
+        this.name = name;
+        this.distinct = new HyperLogLog(hllPrecision);
+    }
+
+    /**
+     * Adds one value of the column.
+     *
+     * @param value The value as returned by ResultSet.getObject, may be null.
+     */
+    public void add(Object value) {
+        rowCount++;
+        if (value == null) {
+            nullCount++;
+            return;
+        }
+        BigDecimal decimal = numericValue(value);
+        if (decimal != null) {
+            double d = decimal.doubleValue();
+            numericCount++;
+            sum += d;
+            if (Double.isNaN(minNumber) || d < minNumber) {
+                minNumber = d;
+            }
+            if (Double.isNaN(maxNumber) || d > maxNumber) {
+                maxNumber = d;
+            }
+            histogram[bin(d)]++;
+            distinct.add(HashUtils.hash64(decimal.signum() == 0 ? "0" : decimal.stripTrailingZeros().toPlainString()));
+            return;
+        }
+        String text = value.toString();
+        if (minText == null || text.compareTo(minText) < 0) {
+            minText = text;
+        }
+        if (maxText == null || text.compareTo(maxText) > 0) {
+            maxText = text;
+        }
+        histogram[bin(text.length())]++;
+        distinct.add(HashUtils.hash64(text));
+    }
+
+    /**
+     * Converts a number to a BigDecimal, and a date or time to seconds since the epoch to the nanosecond,
+     * whichever type the driver returned for it. Local date-times are read in the JVM time zone, as the
+     * driver does for Timestamp.
+     *
+     * @return The numeric value, or null if the value is neither a number nor temporal.
+     */
+    private static BigDecimal numericValue(Object value) {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return BigDecimal.valueOf(((Number) value).doubleValue());
+        }
+        if (value instanceof Number) {
+            return new BigDecimal(value.toString());
+        }
+        Instant instant;
+        if (value instanceof Timestamp) {
+            instant = ((Timestamp) value).toInstant();
+        } else if (value instanceof Date) {
+            // java.sql.Date and java.sql.Time do not support toInstant()
+            instant = Instant.ofEpochMilli(((Date) value).getTime());
+        } else if (value instanceof LocalDateTime) {
+            instant = Timestamp.valueOf((LocalDateTime) value).toInstant();
+        } else if (value instanceof LocalDate) {
+            instant = Instant.ofEpochMilli(java.sql.Date.valueOf((LocalDate) value).getTime());
+        } else if (value instanceof OffsetDateTime) {
+            instant = ((OffsetDateTime) value).toInstant();
+        } else if (value instanceof ZonedDateTime) {
+            instant = ((ZonedDateTime) value).toInstant();
+        } else if (value instanceof Instant) {
+            instant = (Instant) value;
+        } else {
+            return null;
+        }
+        return BigDecimal.valueOf(instant.getEpochSecond()).add(BigDecimal.valueOf(instant.getNano(), 9));
+    }
+
+    /**
+     * Merges the profile of the same column from another partition into this one.
+     *
+     * @param other The other profile.
+     */
+    public void merge(ColumnProfile other) {
+        rowCount += other.rowCount;
+        nullCount += other.nullCount;
+        numericCount += other.numericCount;
+        sum += other.sum;
+        if (!Double.isNaN(other.minNumber) && (Double.isNaN(minNumber) || other.minNumber < minNumber)) {
+            minNumber = other.minNumber;
+        }
+        if (!Double.isNaN(other.maxNumber) && (Double.isNaN(maxNumber) || other.maxNumber > maxNumber)) {
+            maxNumber = other.maxNumber;
+        }
+        if (other.minText != null && (minText == null || other.minText.compareTo(minText) < 0)) {
+            minText = other.minText;
+        }
+        if (other.maxText != null && (maxText == null || other.maxText.compareTo(maxText) > 0)) {
+            maxText = other.maxText;
+        }
+        distinct.merge(other.distinct);
+        for (int i = 0; i < HISTOGRAM_BINS; i++) {
+            histogram[i] += other.histogram[i];
+        }
+    }
+
+    /**
+     * Maps a value to its histogram bin: negative values by descending magnitude, then zero, then
+     * positive values by ascending magnitude.
+     */
+    private static int bin(double value) {
+        if (value == 0 || Double.isNaN(value)) {
+            return OCTAVES;
+        }
+        int octave = Math.getExponent(value) - MIN_EXPONENT;
+        octave = Math.max(0, Math.min(OCTAVES - 1, octave));
+        return value > 0 ? OCTAVES + 1 + octave : OCTAVES - 1 - octave;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getNullCount() {
+        return nullCount;
+    }
+
+    public boolean isNumeric() {
+        return numericCount > 0;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public double getMean() {
+        return numericCount == 0 ? Double.NaN : sum / numericCount;
+    }
+
+    public double getMinNumber() {
+        return minNumber;
+    }
+
+    public double getMaxNumber() {
+        return maxNumber;
+    }
+
+    public String getMinText() {
+        return minText;
+    }
+
+    public String getMaxText() {
+        return maxText;
+    }
+
+    public long getDistinctEstimate() {
+        return distinct.estimate();
+    }
+
+    /**
+     * @return The bin counts; see {@link #HISTOGRAM_BINS}.
+     */
+    public long[] getHistogram() {
+        return histogram.clone();
+    }
+
+    @Override
+    public String toString() {
+        String range = isNumeric()
+                ? String.format("min=%s max=%s sum=%s mean=%s", minNumber, maxNumber, sum, getMean())
+                : String.format("min=%s max=%s", minText, maxText);
+        return String.format("%s: rows=%d nulls=%d distinct~%d %s", name, rowCount, nullCount, getDistinctEstimate(), range);
+    }
+}
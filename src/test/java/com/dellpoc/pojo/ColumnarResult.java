@@ -0,0 +1,397 @@
+package com.dellpoc.pojo;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Column-oriented, read-only materialization of a result set.
+ * Column names are stored once, numeric and date columns live in primitive arrays and strings are
+ * dictionary-encoded. Rows are exposed as lightweight Map views, so the result can be used wherever
+ * a List of row maps is expected and compares equal to an equivalent List of HashMaps. As in a HashMap
+ * filled column by column, a row has one entry per distinct column name, holding the last column of that name.
+ */
+public class ColumnarResult extends AbstractList<Map<String, Object>> {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final String[] columnNames;
+    private final Map<String, Integer> columnIndex;
+    private final String[] keyNames;
+    private final int[] keyColumns;
+    private final Column[] columns;
+    private int rowCount;
+
+    private ColumnarResult(ResultSetMetaData md) throws SQLException {
+        int count = md.getColumnCount();
+        columnNames = new String[count];
+        columnIndex = new HashMap<>(count * 2);
+        columns = new Column[count];
+        for (int i = 0; i < count; i++) {
+            columnNames[i] = md.getColumnName(i + 1);
+            columnIndex.put(columnNames[i], i);
+            columns[i] = Column.forType(md, i + 1);
+        }
+        // Duplicate names, e.g. a.id and b.id, become one map key in first-seen order, bound to the last column
+        keyNames = new String[columnIndex.size()];
+        keyColumns = new int[keyNames.length];
+        Set<String> seen = new HashSet<>(count * 2);
+        int key = 0;
+        for (String name : columnNames) {
+            if (seen.add(name)) {
+                keyNames[key] = name;
+                keyColumns[key++] = columnIndex.get(name);
+            }
+        }
+    }
+
+    /**
+     * Reads every remaining row of the result set into columnar storage.
+     *
+     * @param resultSet The result set to read.
+     * @return The columnar result.
+     * @throws SQLException If a database access error occurs.
+     */
+    public static ColumnarResult from(ResultSet resultSet) throws SQLException {
+        ColumnarResult result = new ColumnarResult(resultSet.getMetaData());
+        while (resultSet.next()) {
+            for (int i = 0; i < result.columns.length; i++) {
+                result.columns[i].read(resultSet, i + 1, result.rowCount);
+            }
+            result.rowCount++;
+        }
+        return result;
+    }
+
+    public List<String> getColumnNames() {
+        return Collections.unmodifiableList(Arrays.asList(columnNames));
+    }
+
+    /**
+     * @param column The column name.
+     * @return The zero-based index of the last column with that name, or -1 if it does not exist.
+     */
+    public int indexOf(String column) {
+        Integer index = columnIndex.get(column);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Reads one cell without creating a row view.
+     *
+     * @param row    The zero-based row index.
+     * @param column The zero-based column index.
+     * @return The cell value, boxed to the type ResultSet.getObject would return for the column.
+     */
+    public Object getValue(int row, int column) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + rowCount);
+        }
+        return columns[column].get(row);
+    }
+
+    @Override
+    public Map<String, Object> get(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + rowCount);
+        }
+        return new RowView(row);
+    }
+
+    @Override
+    public int size() {
+        return rowCount;
+    }
+
+    /**
+     * Read-only map view of one row backed by the column storage.
+     */
+    private class RowView extends AbstractMap<String, Object> {
+        private final int row;
+
+        RowView(int row) {
+            this.row = row;
+        }
+
+        @Override
+        public Object get(Object key) {
+            Integer index = columnIndex.get(key);
+            return index == null ? null : columns[index].get(row);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return columnIndex.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return keyNames.length;
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new Iterator<Entry<String, Object>>() {
+                        private int column;
+
+                        @Override
+                        public boolean hasNext() {
+                            return column < keyNames.length;
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            int c = column++;
+                            return new SimpleImmutableEntry<>(keyNames[c], columns[keyColumns[c]].get(row));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return keyNames.length;
+                }
+            };
+        }
+    }
+
+    /**
+     * Storage for one column. Null cells are tracked in a bit set for the primitive columns.
+     */
+    private abstract static class Column {
+        protected final BitSet nulls = new BitSet();
+
+        static Column forType(ResultSetMetaData md, int index) throws SQLException {
+            switch (md.getColumnType(index)) {
+                case Types.TINYINT:
+                case Types.SMALLINT:
+                    return new LongColumn(LongColumn.INTEGER);
+                case Types.INTEGER:
+                    // MySQL INTEGER UNSIGNED goes up to 2^32 - 1 and is read as a Long
+                    return new LongColumn(md.isSigned(index) ? LongColumn.INTEGER : LongColumn.LONG);
+                case Types.BIGINT:
+                    // MySQL BIGINT UNSIGNED does not fit in a long and is read as a BigInteger
+                    return md.isSigned(index) ? new LongColumn(LongColumn.LONG) : new ObjectColumn();
+                case Types.NUMERIC:
+                case Types.DECIMAL:
+                    // Whole numbers that fit in a long (e.g. Oracle NUMBER(10)) are kept primitive
+                    if (md.getScale(index) == 0 && md.getPrecision(index) > 0 && md.getPrecision(index) <= 18) {
+                        return new LongColumn(LongColumn.DECIMAL);
+                    }
+                    return new ObjectColumn();
+                case Types.REAL:
+                    return new DoubleColumn(true);
+                case Types.FLOAT:
+                case Types.DOUBLE:
+                    return new DoubleColumn(false);
+                case Types.DATE:
+                    return new DateColumn(false);
+                case Types.TIMESTAMP:
+                    return new DateColumn(true);
+                case Types.CHAR:
+                case Types.VARCHAR:
+                case Types.NCHAR:
+                case Types.NVARCHAR:
+                case Types.LONGVARCHAR:
+                case Types.LONGNVARCHAR:
+                    return new StringColumn();
+                default:
+                    return new ObjectColumn();
+            }
+        }
+
+        abstract void read(ResultSet resultSet, int index, int row) throws SQLException;
+
+        abstract Object get(int row);
+    }
+
+    private static class LongColumn extends Column {
+        static final int INTEGER = 0;
+        static final int LONG = 1;
+        static final int DECIMAL = 2;
+
+        private final int boxAs;
+        private long[] values = new long[INITIAL_CAPACITY];
+
+        LongColumn(int boxAs) {
+            this.boxAs = boxAs;
+        }
+
+        @Override
+        void read(ResultSet resultSet, int index, int row) throws SQLException {
+            if (row == values.length) {
+                values = Arrays.copyOf(values, row * 2);
+            }
+            values[row] = resultSet.getLong(index);
+            if (resultSet.wasNull()) {
+                nulls.set(row);
+            }
+        }
+
+        @Override
+        Object get(int row) {
+            if (nulls.get(row)) {
+                return null;
+            }
+            switch (boxAs) {
+                case INTEGER:
+                    return (int) values[row];
+                case DECIMAL:
+                    return BigDecimal.valueOf(values[row]);
+                default:
+                    return values[row];
+            }
+        }
+    }
+
+    private static class DoubleColumn extends Column {
+        private final boolean asFloat;
+        private double[] values = new double[INITIAL_CAPACITY];
+
+        DoubleColumn(boolean asFloat) {
+            this.asFloat = asFloat;
+        }
+
+        @Override
+        void read(ResultSet resultSet, int index, int row) throws SQLException {
+            if (row == values.length) {
+                values = Arrays.copyOf(values, row * 2);
+            }
+            values[row] = resultSet.getDouble(index);
+            if (resultSet.wasNull()) {
+                nulls.set(row);
+            }
+        }
+
+        @Override
+        Object get(int row) {
+            if (nulls.get(row)) {
+                return null;
+            }
+            return asFloat ? (Object) (float) values[row] : (Object) values[row];
+        }
+    }
+
+    /**
+     * Stores dates and timestamps as epoch millis, plus the sub-millisecond nanos for timestamps.
+     */
+    private static class DateColumn extends Column {
+        private final boolean timestamp;
+        private long[] millis = new long[INITIAL_CAPACITY];
+        private int[] nanos;
+
+        DateColumn(boolean timestamp) {
+            this.timestamp = timestamp;
+            if (timestamp) {
+                nanos = new int[INITIAL_CAPACITY];
+            }
+        }
+
+        @Override
+        void read(ResultSet resultSet, int index, int row) throws SQLException {
+            if (row == millis.length) {
+                millis = Arrays.copyOf(millis, row * 2);
+                if (timestamp) {
+                    nanos = Arrays.copyOf(nanos, row * 2);
+                }
+            }
+            java.util.Date value = timestamp ? resultSet.getTimestamp(index) : resultSet.getDate(index);
+            if (value == null) {
+                nulls.set(row);
+                return;
+            }
+            millis[row] = value.getTime();
+            if (timestamp) {
+                nanos[row] = ((Timestamp) value).getNanos();
+            }
+        }
+
+        @Override
+        Object get(int row) {
+            if (nulls.get(row)) {
+                return null;
+            }
+            if (!timestamp) {
+                return new java.sql.Date(millis[row]);
+            }
+            Timestamp value = new Timestamp(millis[row]);
+            value.setNanos(nanos[row]);
+            return value;
+        }
+    }
+
+    /**
+     * Dictionary-encoded strings: each distinct value is stored once and rows hold an int code.
+     */
+    private static class StringColumn extends Column {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private String[] dictionary = new String[INITIAL_CAPACITY];
+        private int[] values = new int[INITIAL_CAPACITY];
+
+        @Override
+        void read(ResultSet resultSet, int index, int row) throws SQLException {
+            if (row == values.length) {
+                values = Arrays.copyOf(values, row * 2);
+            }
+            String value = resultSet.getString(index);
+            if (value == null) {
+                values[row] = -1;
+                return;
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = codes.size();
+                if (code == dictionary.length) {
+                    dictionary = Arrays.copyOf(dictionary, code * 2);
+                }
+                dictionary[code] = value;
+                codes.put(value, code);
+            }
+            values[row] = code;
+        }
+
+        @Override
+        Object get(int row) {
+            int code = values[row];
+            return code < 0 ? null : dictionary[code];
+        }
+    }
+
+    private static class ObjectColumn extends Column {
+        private Object[] values = new Object[INITIAL_CAPACITY];
+
+        @Override
+        void read(ResultSet resultSet, int index, int row) throws SQLException {
+            if (row == values.length) {
+                values = Arrays.copyOf(values, row * 2);
+            }
+            values[row] = resultSet.getObject(index);
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+    }
+}
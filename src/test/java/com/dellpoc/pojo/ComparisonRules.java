@@ -0,0 +1,62 @@
+package com.dellpoc.pojo;
+
+import com.dellpoc.constants.FrameworkConstants;
+
+/**
+ * How values from two databases are normalized before they are compared.
+ */
+public class ComparisonRules {
+    private final int numericScale;
+    private final boolean trimStrings;
+    private final boolean ignoreCase;
+    private final int timestampPrecision;
+    private final boolean emptyStringAsNull;
+
+    /**
+     * @param numericScale       Decimal places numbers are rounded to before comparing, or -1 to compare exactly.
+     * @param trimStrings        Ignore leading and trailing whitespace, e.g. CHAR padding.
+     * @param ignoreCase         Compare strings case-insensitively.
+     * @param timestampPrecision Fractional-second digits kept before comparing timestamps, from 0 to 9.
+     * @param emptyStringAsNull  Treat empty strings as NULL, as Oracle does.
+     */
+    public ComparisonRules(int numericScale, boolean trimStrings, boolean ignoreCase, int timestampPrecision, boolean emptyStringAsNull) {
+        if (timestampPrecision < 0 || timestampPrecision > 9) {
+            throw new IllegalArgumentException("Timestamp precision must be between 0 and 9: " + timestampPrecision);
+        }
+        this.numericScale = numericScale;
+        this.trimStrings = trimStrings;
+        this.ignoreCase = ignoreCase;
+        this.timestampPrecision = timestampPrecision;
+        this.emptyStringAsNull = emptyStringAsNull;
+    }
+
+    /**
+     * @return Exact numbers and case-sensitive untrimmed strings, microsecond timestamps, and empty strings distinct
+     * from NULL. Comparisons against Oracle, which stores empty strings as NULL, pass emptyStringAsNull explicitly.
+     */
+    public static ComparisonRules defaults() {
+        return new ComparisonRules(FrameworkConstants.COMPARE_NUMERIC_SCALE, FrameworkConstants.COMPARE_TRIM_STRINGS,
+                FrameworkConstants.COMPARE_IGNORE_CASE, FrameworkConstants.COMPARE_TIMESTAMP_PRECISION,
+                FrameworkConstants.COMPARE_EMPTY_AS_NULL);
+    }
+
+    public int getNumericScale() {
+        return numericScale;
+    }
+
+    public boolean isTrimStrings() {
+        return trimStrings;
+    }
+
+    public boolean isIgnoreCase() {
+        return ignoreCase;
+    }
+
+    public int getTimestampPrecision() {
+        return timestampPrecision;
+    }
+
+    public boolean isEmptyStringAsNull() {
+        return emptyStringAsNull;
+    }
+}
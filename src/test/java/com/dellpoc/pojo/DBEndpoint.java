@@ -0,0 +1,39 @@
+package com.dellpoc.pojo;
+
+import com.dellpoc.enums.DatabaseDialect;
+
+/**
+ * Connection details for a database, used where more than one connection to the same server is needed.
+ */
+public class DBEndpoint {
+    private final String url;
+    private final String user;
+    private final String password;
+
+    public DBEndpoint(String url, String user, String password) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public DatabaseDialect getDialect() {
+        return DatabaseDialect.fromUrl(url);
+    }
+
+    @Override
+    public String toString() {
+        return user + "@" + url;
+    }
+}
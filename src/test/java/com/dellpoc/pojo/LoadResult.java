@@ -0,0 +1,44 @@
+package com.dellpoc.pojo;
+
+/**
+ * Outcome of a bulk data load: how many rows were written, in how many round trips, and how fast.
+ */
+public class LoadResult {
+    private final String tableName;
+    private final long rows;
+    private final long batches;
+    private final long elapsedMillis;
+
+    public LoadResult(String tableName, long rows, long batches, long elapsedMillis) {
+        this.tableName = tableName;
+        this.rows = rows;
+        this.batches = batches;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? rows * 1000.0 : rows * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Loaded %d rows into %s in %d batches, %d ms (%.0f rows/s)",
+                rows, tableName, batches, elapsedMillis, getRowsPerSecond());
+    }
+}
@@ -0,0 +1,52 @@
+package com.dellpoc.pojo;
+
+import com.dellpoc.constants.FrameworkConstants;
+
+/**
+ * How far a target profile may drift from the source profile before it counts as a difference.
+ * All tolerances are relative, except the histogram tolerance, which is the largest allowed total
+ * variation distance (the share of values that would have to move bins to make the histograms equal).
+ */
+public class ProfileTolerance {
+    private final double countTolerance;
+    private final double valueTolerance;
+    private final double distinctTolerance;
+    private final double histogramTolerance;
+
+    /**
+     * @param countTolerance     Relative tolerance for row and null counts.
+     * @param valueTolerance     Relative tolerance for min, max, sum and mean.
+     * @param distinctTolerance  Relative tolerance for the distinct-count estimates.
+     * @param histogramTolerance Largest total variation distance between the histograms, from 0 to 1.
+     */
+    public ProfileTolerance(double countTolerance, double valueTolerance, double distinctTolerance, double histogramTolerance) {
+        this.countTolerance = countTolerance;
+        this.valueTolerance = valueTolerance;
+        this.distinctTolerance = distinctTolerance;
+        this.histogramTolerance = histogramTolerance;
+    }
+
+    /**
+     * @return Exact counts, floating-point noise on sums and means, and room for the sketch error on distinct counts.
+     */
+    public static ProfileTolerance defaults() {
+        return new ProfileTolerance(FrameworkConstants.PROFILE_COUNT_TOLERANCE, FrameworkConstants.PROFILE_VALUE_TOLERANCE,
+                FrameworkConstants.PROFILE_DISTINCT_TOLERANCE, FrameworkConstants.PROFILE_HISTOGRAM_TOLERANCE);
+    }
+
+    public double getCountTolerance() {
+        return countTolerance;
+    }
+
+    public double getValueTolerance() {
+        return valueTolerance;
+    }
+
+    public double getDistinctTolerance() {
+        return distinctTolerance;
+    }
+
+    public double getHistogramTolerance() {
+        return histogramTolerance;
+    }
+}
@@ -0,0 +1,219 @@
+package com.dellpoc.pojo;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Structured outcome of a keyed source/target reconciliation.
+ * Counts are exact; the sample lists are capped so the result stays small for any table size.
+ */
+public class ReconciliationResult {
+    private final int sampleLimit;
+    private long sourceRows;
+    private long targetRows;
+    private long matchedRows;
+    private long missingRows;
+    private long extraRows;
+    private long changedRows;
+    private final List<String> missingSamples = new ArrayList<>();
+    private final List<String> extraSamples = new ArrayList<>();
+    private final List<String> changedSamples = new ArrayList<>();
+    private final Map<String, Long> columnMismatches = new LinkedHashMap<>();
+
+    public ReconciliationResult(int sampleLimit) {
+        this.sampleLimit = sampleLimit;
+    }
+
+    public void addSourceRow() {
+        sourceRows++;
+    }
+
+    public void addTargetRow() {
+        targetRows++;
+    }
+
+    public void addMatched() {
+        matchedRows++;
+    }
+
+    /**
+     * Records rows that were verified as identical in bulk (e.g. by a matching checksum) without being fetched.
+     *
+     * @param rows The number of matching rows on each side.
+     */
+    public void addMatchedRows(long rows) {
+        sourceRows += rows;
+        targetRows += rows;
+        matchedRows += rows;
+    }
+
+    /**
+     * Records differences that were counted in bulk (e.g. by an aggregation) without being fetched.
+     * Samples are added separately with {@link #addSample(String, String)}.
+     *
+     * @param missing The number of source rows without a target row.
+     * @param extra   The number of target rows without a source row.
+     * @param changed The number of rows present on both sides with different values.
+     */
+    public void addDifferenceCounts(long missing, long extra, long changed) {
+        sourceRows += missing + changed;
+        targetRows += extra + changed;
+        missingRows += missing;
+        extraRows += extra;
+        changedRows += changed;
+    }
+
+    /**
+     * Adds a sample row to a category whose count was recorded in bulk.
+     *
+     * @param category One of "missing", "extra" or "changed".
+     * @param sample   The sample row.
+     */
+    public void addSample(String category, String sample) {
+        switch (category) {
+            case "missing":
+                addSample(missingSamples, sample);
+                break;
+            case "extra":
+                addSample(extraSamples, sample);
+                break;
+            case "changed":
+                addSample(changedSamples, sample);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown difference category: " + category);
+        }
+    }
+
+    /**
+     * Records how many changed rows differ in a column.
+     *
+     * @param column The column name.
+     * @param rows   The number of changed rows that differ in the column.
+     */
+    public void addColumnMismatches(String column, long rows) {
+        columnMismatches.merge(column, rows, Long::sum);
+    }
+
+    public void addMissing(String sample) {
+        missingRows++;
+        addSample(missingSamples, sample);
+    }
+
+    public void addExtra(String sample) {
+        extraRows++;
+        addSample(extraSamples, sample);
+    }
+
+    public void addChanged(String sample) {
+        changedRows++;
+        addSample(changedSamples, sample);
+    }
+
+    private void addSample(List<String> samples, String sample) {
+        if (samples.size() < sampleLimit) {
+            samples.add(sample);
+        }
+    }
+
+    /**
+     * Adds the counts and samples of another (partial) result to this one.
+     *
+     * @param other The result to merge in.
+     */
+    public void merge(ReconciliationResult other) {
+        sourceRows += other.sourceRows;
+        targetRows += other.targetRows;
+        matchedRows += other.matchedRows;
+        missingRows += other.missingRows;
+        extraRows += other.extraRows;
+        changedRows += other.changedRows;
+        for (String sample : other.missingSamples) {
+            addSample(missingSamples, sample);
+        }
+        for (String sample : other.extraSamples) {
+            addSample(extraSamples, sample);
+        }
+        for (String sample : other.changedSamples) {
+            addSample(changedSamples, sample);
+        }
+        other.columnMismatches.forEach(this::addColumnMismatches);
+    }
+
+    /**
+     * @return True if every source row has an identical target row and vice versa.
+     */
+    public boolean isMatch() {
+        return missingRows == 0 && extraRows == 0 && changedRows == 0;
+    }
+
+    public long getSourceRows() {
+        return sourceRows;
+    }
+
+    public long getTargetRows() {
+        return targetRows;
+    }
+
+    public long getMatchedRows() {
+        return matchedRows;
+    }
+
+    public long getMissingRows() {
+        return missingRows;
+    }
+
+    public long getExtraRows() {
+        return extraRows;
+    }
+
+    public long getChangedRows() {
+        return changedRows;
+    }
+
+    public List<String> getMissingSamples() {
+        return missingSamples;
+    }
+
+    public List<String> getExtraSamples() {
+        return extraSamples;
+    }
+
+    public List<String> getChangedSamples() {
+        return changedSamples;
+    }
+
+    public Map<String, Long> getColumnMismatches() {
+        return columnMismatches;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Source rows: ").append(sourceRows)
+                .append(", Target rows: ").append(targetRows)
+                .append(", Matched: ").append(matchedRows)
+                .append(", Missing: ").append(missingRows)
+                .append(", Extra: ").append(extraRows)
+                .append(", Changed: ").append(changedRows);
+        if (!columnMismatches.isEmpty()) {
+            sb.append("\nChanged by column: ").append(columnMismatches);
+        }
+        appendSamples(sb, "Missing in target", missingSamples);
+        appendSamples(sb, "Extra in target", extraSamples);
+        appendSamples(sb, "Changed", changedSamples);
+        return sb.toString();
+    }
+
+    private static void appendSamples(StringBuilder sb, String title, List<String> samples) {
+        if (samples.isEmpty()) {
+            return;
+        }
+        sb.append("\n").append(title).append(":");
+        for (String sample : samples) {
+            sb.append("\n  ").append(sample);
+        }
+    }
+}
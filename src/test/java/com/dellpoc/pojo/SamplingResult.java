@@ -0,0 +1,103 @@
+package com.dellpoc.pojo;
+
+/**
+ * Outcome of a sampled reconciliation: the row-level diff of the sampled keys plus the estimated
+ * mismatch rate of the whole data set with a Wilson score confidence interval.
+ */
+public class SamplingResult {
+    private final ReconciliationResult reconciliation;
+    private final double sampleFraction;
+    private final double confidence;
+    private final long populationRows;
+    private final double lowerBound;
+    private final double upperBound;
+
+    /**
+     * @param reconciliation The diff of the sampled rows.
+     * @param sampleFraction The fraction of the key space that was sampled.
+     * @param z              The standard normal quantile of the confidence level, e.g. 1.96 for 95%.
+     * @param confidence     The confidence level, e.g. 0.95.
+     * @param populationRows The number of source rows, or -1 if it was not counted.
+     */
+    public SamplingResult(ReconciliationResult reconciliation, double sampleFraction, double z, double confidence, long populationRows) {
+        this.reconciliation = reconciliation;
+        this.sampleFraction = sampleFraction;
+        this.confidence = confidence;
+        this.populationRows = populationRows;
+
+        long n = getSampledRows();
+        if (n == 0) {
+            lowerBound = 0;
+            upperBound = 1;
+        } else {
+            double p = getMismatchRate();
+            double z2 = z * z;
+            double denominator = 1 + z2 / n;
+            double centre = (p + z2 / (2.0 * n)) / denominator;
+            double half = z * Math.sqrt(p * (1 - p) / n + z2 / (4.0 * n * n)) / denominator;
+            lowerBound = Math.max(0, centre - half);
+            upperBound = Math.min(1, centre + half);
+        }
+    }
+
+    public ReconciliationResult getReconciliation() {
+        return reconciliation;
+    }
+
+    public double getSampleFraction() {
+        return sampleFraction;
+    }
+
+    public double getConfidence() {
+        return confidence;
+    }
+
+    public long getPopulationRows() {
+        return populationRows;
+    }
+
+    /**
+     * @return The number of distinct sampled keys seen on either side.
+     */
+    public long getSampledRows() {
+        return reconciliation.getMatchedRows() + reconciliation.getChangedRows()
+                + reconciliation.getMissingRows() + reconciliation.getExtraRows();
+    }
+
+    public long getMismatchedRows() {
+        return reconciliation.getChangedRows() + reconciliation.getMissingRows() + reconciliation.getExtraRows();
+    }
+
+    public double getMismatchRate() {
+        long n = getSampledRows();
+        return n == 0 ? 0 : (double) getMismatchedRows() / n;
+    }
+
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * @param maxMismatchRate The highest acceptable mismatch rate.
+     * @return True if the upper confidence bound of the mismatch rate does not exceed the threshold.
+     */
+    public boolean isWithin(double maxMismatchRate) {
+        return upperBound <= maxMismatchRate;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(String.format(
+                "Sampled %d rows (%.4f%% of keys): %d mismatched, rate %.6f, %.0f%% CI [%.6f, %.6f]",
+                getSampledRows(), sampleFraction * 100, getMismatchedRows(), getMismatchRate(),
+                confidence * 100, lowerBound, upperBound));
+        if (populationRows >= 0) {
+            sb.append(String.format(", estimated %.0f of %d rows mismatched", getMismatchRate() * populationRows, populationRows));
+        }
+        return sb.append('\n').append(reconciliation).toString();
+    }
+}
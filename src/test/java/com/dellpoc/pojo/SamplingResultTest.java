@@ -0,0 +1,66 @@
+package com.dellpoc.pojo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the Wilson score interval against published values, including the edge cases where the normal
+ * approximation breaks down.
+ */
+class SamplingResultTest {
+
+    private static final double Z_95 = 1.959964;
+
+    @Test
+    void intervalMatchesTheWilsonScoreInterval() {
+        // 10 of 100 rows mismatched: 95% Wilson interval [0.0552, 0.1744]
+        SamplingResult result = sampled(90, 4, 3, 3);
+
+        assertEquals(100, result.getSampledRows());
+        assertEquals(10, result.getMismatchedRows());
+        assertEquals(0.1, result.getMismatchRate(), 1e-12);
+        assertEquals(0.0552, result.getLowerBound(), 1e-4);
+        assertEquals(0.1744, result.getUpperBound(), 1e-4);
+        assertTrue(result.isWithin(0.2));
+        assertFalse(result.isWithin(0.15));
+    }
+
+    @Test
+    void noMismatchesStillHasAPositiveUpperBound() {
+        // 0 of 1000: upper bound z^2 / (n + z^2) = 0.00383
+        SamplingResult result = sampled(1000, 0, 0, 0);
+
+        assertEquals(0.0, result.getLowerBound(), 1e-12);
+        assertEquals(0.00383, result.getUpperBound(), 1e-5);
+        assertFalse(result.isWithin(0.001));
+        assertTrue(result.isWithin(0.005));
+    }
+
+    @Test
+    void allMismatchedIsBoundedByOne() {
+        SamplingResult result = sampled(0, 5, 0, 0);
+
+        assertEquals(1.0, result.getMismatchRate(), 0);
+        assertEquals(1.0, result.getUpperBound(), 1e-12);
+        assertTrue(result.getLowerBound() > 0.5);
+    }
+
+    @Test
+    void emptySampleIsUninformative() {
+        SamplingResult result = sampled(0, 0, 0, 0);
+
+        assertEquals(0.0, result.getLowerBound(), 0);
+        assertEquals(1.0, result.getUpperBound(), 0);
+        assertFalse(result.isWithin(0.5));
+    }
+
+    private static SamplingResult sampled(long matched, long changed, long missing, long extra) {
+        ReconciliationResult reconciliation = new ReconciliationResult(10);
+        reconciliation.addMatchedRows(matched);
+        reconciliation.addDifferenceCounts(missing, extra, changed);
+        return new SamplingResult(reconciliation, 0.01, Z_95, 0.95, -1);
+    }
+}
@@ -0,0 +1,59 @@
+package com.dellpoc.pojo;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Column profiles of one query result, keyed by upper-case column name in result order.
+ */
+public class TableProfile {
+    private long rowCount;
+    private final Map<String, ColumnProfile> columns = new LinkedHashMap<>();
+
+    public void addRow() {
+        rowCount++;
+    }
+
+    public void addColumn(ColumnProfile column) {
+        columns.put(column.getName().toUpperCase(), column);
+    }
+
+    /**
+     * Merges the profile of another partition of the same query into this one.
+     *
+     * @param other The other profile.
+     */
+    public void merge(TableProfile other) {
+        rowCount += other.rowCount;
+        for (ColumnProfile column : other.columns.values()) {
+            ColumnProfile mine = columns.get(column.getName().toUpperCase());
+            if (mine == null) {
+                addColumn(column);
+            } else {
+                mine.merge(column);
+            }
+        }
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public ColumnProfile getColumn(String name) {
+        return columns.get(name.toUpperCase());
+    }
+
+    public Map<String, ColumnProfile> getColumns() {
+        return Collections.unmodifiableMap(columns);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Profile of ").append(rowCount).append(" rows");
+        for (ColumnProfile column : columns.values()) {
+            sb.append("\n  ").append(column);
+        }
+        return sb.toString();
+    }
+}
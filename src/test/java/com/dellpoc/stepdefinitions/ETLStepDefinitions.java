@@ -1,6 +1,10 @@
 package com.dellpoc.stepdefinitions;
 
+import com.dellpoc.pojo.ReconciliationResult;
 import com.dellpoc.utils.CommonUtils;
+import com.dellpoc.utils.SparkDiff;
+import com.dellpoc.utils.SparkSessionManager;
+import io.cucumber.java.After;
 import io.cucumber.java.en.Given;
 import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
@@ -10,6 +14,10 @@ import org.apache.spark.sql.Dataset;
 import org.apache.spark.sql.Row;
 import org.apache.spark.sql.SparkSession;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import static org.junit.Assert.assertTrue;
 
 public class ETLStepDefinitions {
@@ -21,27 +29,46 @@ public class ETLStepDefinitions {
 
     @Given("the source data is loaded")
     public void loadSourceData() {
-        spark = SparkSession.builder()
-                .appName("ETL Testing")
-                .master("local")
-                .getOrCreate();
-        sourceData = spark.read().format("csv").option("header", "true").load("path/to/source.csv");
-        Serenity.recordReportData().withTitle("Source Data").andContents(sourceData.showString(10, 0, false));
+        spark = SparkSessionManager.getSession();
+        SparkSessionManager.sizeShufflePartitions("path/to/source.csv");
+        sourceData = spark.read().format("csv").option("header", "true").load("path/to/source.csv")
+                .persist(SparkSessionManager.getStorageLevel());
+        long rows = sourceData.count();
+        Serenity.recordReportData().withTitle("Source Data").andContents("Rows: " + rows + "\n" + sourceData.showString(10, 0, false));
     }
 
     @When("the ETL job is executed")
     public void executeETLJob() {
-        transformedData = sourceData.filter("some condition");
+        transformedData = sourceData.filter("some condition").persist(SparkSessionManager.getStorageLevel());
         transformedData.write().format("csv").option("header", "true").save("path/to/transformed.csv");
         Serenity.recordReportData().withTitle("Transformed Data").andContents(transformedData.showString(10, 0, false));
     }
 
     @Then("the target data should match the expected results")
     public void validateTargetData() {
-        targetData = spark.read().format("csv").option("header", "true").load("path/to/target.csv");
-        boolean isValid = transformedData.except(targetData).isEmpty();
-        Serenity.recordReportData().withTitle("Target Data Validation").andContents("Validation Result: " + isValid);
-        assertTrue(isValid);
+        validateTargetData(Collections.emptyList());
+    }
+
+    @Then("the target data should match the expected results by key {string}")
+    public void validateTargetDataByKey(String keyColumns) {
+        validateTargetData(Arrays.asList(keyColumns.split("\\s*,\\s*")));
+    }
+
+    private void validateTargetData(List<String> keyColumns) {
+        targetData = spark.read().format("csv").option("header", "true").load("path/to/target.csv")
+                .persist(SparkSessionManager.getStorageLevel());
+        ReconciliationResult result = new SparkDiff(keyColumns).diff(transformedData, targetData);
+        Serenity.recordReportData().withTitle("Target Data Validation").andContents(result.toString());
+        assertTrue(result.toString(), result.isMatch());
+    }
+
+    @After
+    public void unpersistDatasets() {
+        for (Dataset<Row> dataset : Arrays.asList(sourceData, transformedData, targetData)) {
+            if (dataset != null) {
+                dataset.unpersist(false);
+            }
+        }
     }
 
     @And("the Spark job is run on the server with command {string} on host {string} with user {string} and password {string}")
@@ -6,12 +6,15 @@ import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
 import org.junit.Assert;
 
-import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 public class DBSteps {
 
-    private ResultSet resultSet;
+    private List<String> columns;
+    private List<String[]> rows;
 
     @Given("I connect to the Oracle database with URL {string}, user {string}, and password {string}")
     public void connectToDB(String url, String user, String password) throws SQLException {
@@ -19,15 +22,40 @@ public class DBSteps {
     }
 
     @When("I execute the query {string}")
-    public void executeQuery(String query) throws SQLException {
-        resultSet = DBUtils.executeQuery(query);
+    public void executeQuery(String query) throws Exception {
+        // Values are kept as ResultSet.getString renders them, which is how feature files spell them
+        rows = DBUtils.query(query, resultSet -> {
+            ResultSetMetaData md = resultSet.getMetaData();
+            columns = new ArrayList<>();
+            for (int i = 1; i <= md.getColumnCount(); i++) {
+                columns.add(md.getColumnLabel(i));
+            }
+            List<String[]> values = new ArrayList<>();
+            while (resultSet.next()) {
+                String[] row = new String[columns.size()];
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = resultSet.getString(i + 1);
+                }
+                values.add(row);
+            }
+            return values;
+        });
     }
 
     @Then("the result should contain a column {string} with value {string}")
-    public void verifyResult(String column, String value) throws SQLException {
+    public void verifyResult(String column, String value) {
+        int index = -1;
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).equalsIgnoreCase(column)) {
+                index = i;
+                break;
+            }
+        }
+        Assert.assertTrue("Column " + column + " not found in the result set", index >= 0);
+
         boolean found = false;
-        while (resultSet.next()) {
-            if (resultSet.getString(column).equals(value)) {
+        for (String[] row : rows) {
+            if (value.equals(row[index])) {
                 found = true;
                 break;
             }
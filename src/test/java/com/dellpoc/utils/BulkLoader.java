@@ -0,0 +1,276 @@
+package com.dellpoc.utils;
+
+import com.dellpoc.constants.FrameworkConstants;
+import com.dellpoc.enums.DatabaseDialect;
+import com.dellpoc.pojo.LoadResult;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Loads rows into a table through the fastest interface the database offers:
+ * COPY FROM STDIN on Postgres, direct-path array inserts on Oracle, and JDBC batching everywhere else.
+ */
+public class BulkLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkLoader.class);
+
+    /**
+     * Loads rows into a table.
+     *
+     * @param conn      The database connection.
+     * @param tableName The name of the table.
+     * @param columns   The target columns, in the order of the row values.
+     * @param rows      The rows to load; each row holds one value per column, null for SQL NULL.
+     * @return The row count, batch count and throughput of the load.
+     * @throws Exception If the load fails.
+     */
+    public static LoadResult load(Connection conn, String tableName, List<String> columns, Iterator<? extends List<?>> rows) throws Exception {
+        long start = System.currentTimeMillis();
+        DatabaseDialect dialect = DatabaseDialect.fromConnection(conn);
+        LoadResult result;
+        switch (dialect) {
+            case POSTGRES:
+                result = copyIn(conn, tableName, columns, rows, start);
+                break;
+            case ORACLE:
+                result = insertBatches(conn, tableName, columns, rows, "/*+ APPEND_VALUES */ ",
+                        FrameworkConstants.BULK_BATCH_SIZE, FrameworkConstants.BULK_BATCH_SIZE, start);
+                break;
+            default:
+                result = insertBatches(conn, tableName, columns, rows, "",
+                        FrameworkConstants.DEFAULT_BATCH_SIZE, FrameworkConstants.DEFAULT_COMMIT_INTERVAL, start);
+        }
+        QueryResultCache.invalidateTable(tableName);
+        log.info("{} via {} bulk load", result, dialect);
+        return result;
+    }
+
+    /**
+     * Loads CSV records as returned by {@link CommonUtils#readCSV(String)}. The first record is the header
+     * naming the target columns; empty fields are loaded as NULL.
+     *
+     * @param conn      The database connection.
+     * @param tableName The name of the table.
+     * @param records   The header record followed by the data records.
+     * @return The row count, batch count and throughput of the load.
+     * @throws Exception If the load fails.
+     */
+    public static LoadResult load(Connection conn, String tableName, List<CSVRecord> records) throws Exception {
+        if (records.isEmpty()) {
+            return new LoadResult(tableName, 0, 0, 0);
+        }
+        List<String> columns = header(records.get(0));
+        return load(conn, tableName, columns, csvRows(records.subList(1, records.size()).iterator()));
+    }
+
+    /**
+     * Streams a CSV file with a header line into a table without reading it into memory.
+     * On Postgres the file is handed to COPY unparsed.
+     *
+     * @param conn      The database connection.
+     * @param tableName The name of the table.
+     * @param filePath  The path to the CSV file.
+     * @return The row count, batch count and throughput of the load.
+     * @throws Exception If the file cannot be read or the load fails.
+     */
+    public static LoadResult loadCsv(Connection conn, String tableName, String filePath) throws Exception {
+        long start = System.currentTimeMillis();
+        if (DatabaseDialect.fromConnection(conn) != DatabaseDialect.POSTGRES) {
+            try (CSVParser parser = new CSVParser(Files.newBufferedReader(Paths.get(filePath)), CSVFormat.DEFAULT)) {
+                Iterator<CSVRecord> records = parser.iterator();
+                if (!records.hasNext()) {
+                    return new LoadResult(tableName, 0, 0, 0);
+                }
+                List<String> columns = header(records.next());
+                return load(conn, tableName, columns, csvRows(records));
+            }
+        }
+
+        List<String> columns;
+        try (CSVParser parser = new CSVParser(Files.newBufferedReader(Paths.get(filePath)), CSVFormat.DEFAULT)) {
+            Iterator<CSVRecord> records = parser.iterator();
+            if (!records.hasNext()) {
+                return new LoadResult(tableName, 0, 0, 0);
+            }
+            columns = header(records.next());
+        }
+        try (Reader reader = Files.newBufferedReader(Paths.get(filePath))) {
+            CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+            long rows = copyManager.copyIn(copySql(tableName, columns) + ", HEADER true)", reader);
+            QueryResultCache.invalidateTable(tableName);
+            LoadResult result = new LoadResult(tableName, rows, 1, System.currentTimeMillis() - start);
+            log.info("{} via POSTGRES bulk load", result);
+            return result;
+        }
+    }
+
+    private static LoadResult copyIn(Connection conn, String tableName, List<String> columns, Iterator<? extends List<?>> rows, long start) throws SQLException {
+        CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+        CopyIn copy = copyManager.copyIn(copySql(tableName, columns) + ")");
+        StringBuilder buffer = new StringBuilder(FrameworkConstants.BULK_COPY_BUFFER_CHARS + 1024);
+        long count = 0;
+        long flushes = 0;
+        try {
+            while (rows.hasNext()) {
+                List<?> row = checkWidth(rows.next(), columns, count);
+                for (int i = 0; i < row.size(); i++) {
+                    if (i > 0) {
+                        buffer.append(',');
+                    }
+                    appendCsv(buffer, row.get(i));
+                }
+                buffer.append('\n');
+                count++;
+                if (buffer.length() >= FrameworkConstants.BULK_COPY_BUFFER_CHARS) {
+                    write(copy, buffer);
+                    flushes++;
+                }
+            }
+            if (buffer.length() > 0) {
+                write(copy, buffer);
+                flushes++;
+            }
+            copy.endCopy();
+        } catch (SQLException | RuntimeException e) {
+            log.error("COPY into {} failed after {} rows", tableName, count, e);
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+            throw e;
+        }
+        return new LoadResult(tableName, count, flushes, System.currentTimeMillis() - start);
+    }
+
+    private static LoadResult insertBatches(Connection conn, String tableName, List<String> columns, Iterator<? extends List<?>> rows,
+                                            String hint, int batchSize, int commitInterval, long start) throws SQLException {
+        String placeholders = String.join(",", Collections.nCopies(columns.size(), "?"));
+        String query = String.format("INSERT %sINTO %s (%s) VALUES (%s)", hint, tableName, String.join(",", columns), placeholders);
+
+        boolean autoCommit = conn.getAutoCommit();
+        boolean started = false;
+        long count = 0;
+        long batches = 0;
+        try (PreparedStatement ps = QueryMetrics.instrument(conn.prepareStatement(query), query)) {
+            conn.setAutoCommit(false);
+            started = true;
+            while (rows.hasNext()) {
+                StatementCache.bind(ps, checkWidth(rows.next(), columns, count));
+                ps.addBatch();
+                count++;
+                if (count % batchSize == 0) {
+                    ps.executeBatch();
+                    batches++;
+                }
+                if (count % commitInterval == 0) {
+                    conn.commit();
+                }
+            }
+            if (count % batchSize != 0) {
+                ps.executeBatch();
+                batches++;
+            }
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            log.error("Bulk insert into {} failed after {} rows", tableName, count, e);
+            DBUtils.abortTransaction(conn, started, autoCommit, e);
+            throw e;
+        }
+        conn.setAutoCommit(autoCommit);
+        return new LoadResult(tableName, count, batches, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Rejects a row that does not hold exactly one value per column, before any of it is sent.
+     */
+    private static List<?> checkWidth(List<?> row, List<String> columns, long rowsBefore) {
+        if (row.size() != columns.size()) {
+            throw new IllegalArgumentException("Row " + (rowsBefore + 1) + " has " + row.size() + " values for "
+                    + columns.size() + " columns " + columns);
+        }
+        return row;
+    }
+
+    private static String copySql(String tableName, List<String> columns) {
+        return "COPY " + tableName + " (" + String.join(",", columns) + ") FROM STDIN WITH (FORMAT csv";
+    }
+
+    /**
+     * Appends a value in Postgres CSV form: NULL is an unquoted empty field, and any value that is empty
+     * or contains a delimiter, quote or line break is quoted.
+     */
+    private static void appendCsv(StringBuilder buffer, Object value) {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        boolean quote = text.isEmpty();
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r' || c == '\\';
+        }
+        if (!quote) {
+            buffer.append(text);
+            return;
+        }
+        buffer.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                buffer.append('"');
+            }
+            buffer.append(c);
+        }
+        buffer.append('"');
+    }
+
+    private static void write(CopyIn copy, StringBuilder buffer) throws SQLException {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    private static List<String> header(CSVRecord record) {
+        List<String> values = new ArrayList<>(record.size());
+        for (String value : record) {
+            values.add(value.trim());
+        }
+        return values;
+    }
+
+    private static Iterator<List<Object>> csvRows(Iterator<CSVRecord> records) {
+        return new Iterator<List<Object>>() {
+            @Override
+            public boolean hasNext() {
+                return records.hasNext();
+            }
+
+            @Override
+            public List<Object> next() {
+                CSVRecord record = records.next();
+                List<Object> values = new ArrayList<>(record.size());
+                for (String value : record) {
+                    values.add(value.isEmpty() ? null : value);
+                }
+                return values;
+            }
+        };
+    }
+}
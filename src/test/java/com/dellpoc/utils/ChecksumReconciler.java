@@ -0,0 +1,421 @@
+package com.dellpoc.utils;
+
+import com.dellpoc.constants.FrameworkConstants;
+import com.dellpoc.enums.DatabaseDialect;
+import com.dellpoc.pojo.ColumnInfo;
+import com.dellpoc.pojo.ComparisonRules;
+import com.dellpoc.pojo.ReconciliationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reconciles two databases by comparing per-range digests computed on each server (Merkle-style).
+ * Every row is rendered into a normalized string that is identical across Oracle, Postgres, MySQL and
+ * SQL Server, hashed with MD5 inside the database, and summed per key range together with the row count.
+ * Only ranges whose digests differ are split further, and only small mismatched ranges are fetched and
+ * compared row by row, so matching data never leaves the database. Values are normalized with the same
+ * {@link ComparisonRules} as the row-by-row comparison, so a range only digests equal when its rows would also
+ * compare equal. Text is hashed in the database character set, so non-ASCII text only hashes identically
+ * between databases that both use UTF-8.
+ */
+public class ChecksumReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(ChecksumReconciler.class);
+    private static final String NULL_TOKEN = "N";
+
+    private final String keyColumn;
+    private final int fanout;
+    private final long leafRows;
+    private final ComparisonRules rules;
+
+    /**
+     * @param keyColumn The non-null integral column that identifies a row on both sides.
+     * @param fanout    The number of sub-ranges a mismatched range is split into.
+     * @param leafRows  Mismatched ranges with at most this many rows are compared row by row.
+     * @param rules     How values are normalized, both in the digests and in the row-by-row comparison.
+     */
+    public ChecksumReconciler(String keyColumn, int fanout, long leafRows, ComparisonRules rules) {
+        this.keyColumn = keyColumn;
+        this.fanout = Math.max(2, fanout);
+        this.leafRows = leafRows;
+        this.rules = rules;
+    }
+
+    public ChecksumReconciler(String keyColumn, int fanout, long leafRows) {
+        this(keyColumn, fanout, leafRows, ComparisonRules.defaults());
+    }
+
+    public ChecksumReconciler(String keyColumn) {
+        this(keyColumn, FrameworkConstants.CHECKSUM_FANOUT, FrameworkConstants.CHECKSUM_LEAF_ROWS);
+    }
+
+    /**
+     * Reconciles the two queries by comparing range digests and drilling into mismatched ranges only.
+     *
+     * @param sourceConn  The source database connection.
+     * @param sourceQuery The SQL query for the source table.
+     * @param targetConn  The target database connection.
+     * @param targetQuery The SQL query for the target table.
+     * @return The row-level differences found in the mismatched ranges.
+     * @throws SQLException If a database access error occurs.
+     */
+    public ReconciliationResult reconcile(Connection sourceConn, String sourceQuery, Connection targetConn, String targetQuery) throws SQLException {
+        Side source = new Side(sourceConn, sourceQuery);
+        Side target = new Side(targetConn, targetQuery);
+        List<String> columns = commonColumns(source, target);
+        Map<String, Integer> scales = new HashMap<>();
+        for (String column : columns) {
+            scales.put(column, numericScale(column, source.columns.get(column), target.columns.get(column)));
+        }
+        source.buildDigestExpressions(columns, scales);
+        target.buildDigestExpressions(columns, scales);
+
+        ReconciliationResult result = new ReconciliationResult(FrameworkConstants.DEFAULT_SAMPLE_LIMIT);
+        long[] sourceBounds = source.bounds();
+        long[] targetBounds = target.bounds();
+        if (sourceBounds == null && targetBounds == null) {
+            return result;
+        }
+        long lower = Math.min(sourceBounds == null ? Long.MAX_VALUE : sourceBounds[0], targetBounds == null ? Long.MAX_VALUE : targetBounds[0]);
+        long upper = Math.max(sourceBounds == null ? Long.MIN_VALUE : sourceBounds[1], targetBounds == null ? Long.MIN_VALUE : targetBounds[1]) + 1;
+
+        Deque<long[]> ranges = new ArrayDeque<>();
+        ranges.push(new long[]{lower, upper});
+        long rowsCompared = 0;
+        int digestQueries = 0;
+        while (!ranges.isEmpty()) {
+            long[] range = ranges.pop();
+            long step = Math.max(1, (range[1] - range[0] + fanout - 1) / fanout);
+            Map<Long, Digest> sourceDigests = source.digests(range[0], range[1], step);
+            Map<Long, Digest> targetDigests = target.digests(range[0], range[1], step);
+            digestQueries += 2;
+
+            for (long bucket = 0; range[0] + bucket * step < range[1]; bucket++) {
+                Digest s = sourceDigests.getOrDefault(bucket, Digest.EMPTY);
+                Digest t = targetDigests.getOrDefault(bucket, Digest.EMPTY);
+                long subLower = range[0] + bucket * step;
+                long subUpper = Math.min(range[1], subLower + step);
+                if (s.equals(t)) {
+                    result.addMatchedRows(s.rows);
+                } else if (Math.max(s.rows, t.rows) <= leafRows || subUpper - subLower <= 1) {
+                    rowsCompared += s.rows + t.rows;
+                    result.merge(new StreamingReconciler(Collections.singletonList(keyColumn), FrameworkConstants.DEFAULT_SAMPLE_LIMIT, rules)
+                            .reconcile(sourceConn, source.rangeQuery(subLower, subUpper), targetConn, target.rangeQuery(subLower, subUpper)));
+                } else {
+                    ranges.push(new long[]{subLower, subUpper});
+                }
+            }
+        }
+
+        log.info("Checksum reconciliation ran {} digest queries and fetched {} rows: {}", digestQueries, rowsCompared, result);
+        return result;
+    }
+
+    private static List<String> commonColumns(Side source, Side target) {
+        List<String> columns = new ArrayList<>();
+        for (String column : source.columns.keySet()) {
+            if (target.columns.containsKey(column)) {
+                columns.add(column);
+            } else {
+                log.warn("Column {} is not present in the target result and will not be compared", column);
+            }
+        }
+        Collections.sort(columns);
+        return columns;
+    }
+
+    /**
+     * The decimal places a numeric column is digested at: the numeric scale of the rules, or for exact comparison
+     * the larger declared scale of the two sides, so that no digit the row-by-row comparison would see is rounded
+     * away. Columns without a declared scale, e.g. floating point or unconstrained NUMBER, cannot be digested
+     * exactly and need rules with a numeric scale.
+     *
+     * @return The scale, or -1 if the column is not numeric on either side.
+     */
+    private int numericScale(String column, ColumnInfo source, ColumnInfo target) {
+        if (!isNumeric(source.getJdbcType()) && !isNumeric(target.getJdbcType())) {
+            return -1;
+        }
+        if (rules.getNumericScale() >= 0) {
+            return rules.getNumericScale();
+        }
+        int scale = 0;
+        for (ColumnInfo info : new ColumnInfo[]{source, target}) {
+            if (!isNumeric(info.getJdbcType())) {
+                continue;
+            }
+            int declared = declaredScale(info);
+            if (declared < 0) {
+                throw new IllegalArgumentException("Column " + column + " (" + info.getTypeName()
+                        + ") has no fixed scale and cannot be checksummed exactly; use ComparisonRules with a numeric scale");
+            }
+            scale = Math.max(scale, declared);
+        }
+        return scale;
+    }
+
+    private static int declaredScale(ColumnInfo info) {
+        switch (info.getJdbcType()) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                return 0;
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                // Oracle reports an unconstrained NUMBER as scale -127, Postgres an unconstrained numeric as precision 0
+                return info.getPrecision() > 0 && info.getPrecision() <= 1000 && info.getScale() >= 0 ? info.getScale() : -1;
+            default:
+                return -1;
+        }
+    }
+
+    private static boolean isNumeric(int type) {
+        switch (type) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Row count plus two independent 32-bit hash sums for one key range.
+     */
+    private static class Digest {
+        static final Digest EMPTY = new Digest(0, BigDecimal.ZERO, BigDecimal.ZERO);
+
+        final long rows;
+        final BigDecimal sumHigh;
+        final BigDecimal sumLow;
+
+        Digest(long rows, BigDecimal sumHigh, BigDecimal sumLow) {
+            this.rows = rows;
+            this.sumHigh = sumHigh == null ? BigDecimal.ZERO : sumHigh;
+            this.sumLow = sumLow == null ? BigDecimal.ZERO : sumLow;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Digest)) {
+                return false;
+            }
+            Digest other = (Digest) o;
+            return rows == other.rows && sumHigh.compareTo(other.sumHigh) == 0 && sumLow.compareTo(other.sumLow) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(rows);
+        }
+    }
+
+    /**
+     * One database: its query, dialect, column types and the SQL that digests a key range.
+     */
+    private class Side {
+        private final Connection conn;
+        private final String query;
+        private final DatabaseDialect dialect;
+        private final Map<String, ColumnInfo> columns = new HashMap<>();
+        private String hashHigh;
+        private String hashLow;
+
+        Side(Connection conn, String query) throws SQLException {
+            this.conn = conn;
+            this.query = query;
+            this.dialect = DatabaseDialect.fromConnection(conn);
+            if (dialect == DatabaseDialect.GENERIC) {
+                throw new IllegalArgumentException("Checksum reconciliation is not supported for " + conn.getMetaData().getURL());
+            }
+            for (ColumnInfo column : SchemaCache.getQueryColumns(conn, query)) {
+                columns.put(column.getName().toUpperCase(), column);
+            }
+        }
+
+        void buildDigestExpressions(List<String> names, Map<String, Integer> scales) {
+            List<String> parts = new ArrayList<>();
+            for (String name : names) {
+                ColumnInfo column = columns.get(name);
+                parts.add(encode(column.getName(), normalize(column.getName(), column.getJdbcType(), scales.get(name))));
+            }
+            String row = concat(parts);
+            hashHigh = hashPart(row, 1);
+            hashLow = hashPart(row, 9);
+        }
+
+        long[] bounds() throws SQLException {
+            try (Statement stm = DBUtils.createCursorStatement(conn);
+                 ResultSet resultSet = stm.executeQuery("SELECT MIN(" + keyColumn + "), MAX(" + keyColumn + ") FROM (" + query + ") bq")) {
+                resultSet.next();
+                long min = resultSet.getLong(1);
+                if (resultSet.wasNull()) {
+                    return null;
+                }
+                return new long[]{min, resultSet.getLong(2)};
+            }
+        }
+
+        Map<Long, Digest> digests(long lower, long upper, long step) throws SQLException {
+            String bucket = "FLOOR((" + keyColumn + " - " + lower + ") / " + step + ")";
+            String sql = "SELECT " + bucket + ", COUNT(*), SUM(" + hashHigh + "), SUM(" + hashLow + ")"
+                    + " FROM (" + query + ") dq WHERE " + keyColumn + " >= " + lower + " AND " + keyColumn + " < " + upper
+                    + " GROUP BY " + bucket;
+            Map<Long, Digest> digests = new HashMap<>();
+            try (Statement stm = DBUtils.createCursorStatement(conn);
+                 ResultSet resultSet = stm.executeQuery(sql)) {
+                while (resultSet.next()) {
+                    digests.put(resultSet.getLong(1), new Digest(resultSet.getLong(2), resultSet.getBigDecimal(3), resultSet.getBigDecimal(4)));
+                }
+            }
+            return digests;
+        }
+
+        String rangeQuery(long lower, long upper) {
+            return "SELECT * FROM (" + query + ") lq WHERE " + keyColumn + " >= " + lower + " AND " + keyColumn + " < " + upper;
+        }
+
+        /**
+         * Renders a non-null value as its length, a colon and the value, and NULL as a bare marker, so that
+         * no value, including one that looks like the marker or contains the separator, encodes like another.
+         */
+        private String encode(String column, String value) {
+            String isNull = column + " IS NULL";
+            if (rules.isEmptyStringAsNull()) {
+                isNull += " OR " + length(value) + " = 0";
+            }
+            String lengthPrefixed = dialect == DatabaseDialect.ORACLE || dialect == DatabaseDialect.POSTGRES
+                    ? length(value) + " || ':' || " + value
+                    : "CONCAT(" + length(value) + ", ':', " + value + ")";
+            return "CASE WHEN " + isNull + " THEN '" + NULL_TOKEN + "' ELSE " + lengthPrefixed + " END";
+        }
+
+        /**
+         * Renders a column as text that is identical on every dialect exactly when the row-by-row comparison
+         * under the same rules finds the values equal: numbers are scaled by 10^scale and rounded to a whole
+         * number, dates and timestamps use 'YYYY-MM-DD HH:MI:SS' plus the fractional digits the rules keep,
+         * and everything else is cast to text, trimmed and upper-cased as the rules say.
+         */
+        private String normalize(String column, int type, int scale) {
+            // Postgres has no two-argument ROUND for double precision
+            String number = dialect == DatabaseDialect.POSTGRES ? "CAST(" + column + " AS NUMERIC)" : column;
+            String scaled = "ROUND(" + number + " * " + BigDecimal.TEN.pow(Math.max(0, scale)) + ", 0)";
+            int precision = rules.getTimestampPrecision();
+            int width = precision == 0 ? 19 : 20 + precision;
+            switch (type) {
+                case Types.TINYINT:
+                case Types.SMALLINT:
+                case Types.INTEGER:
+                case Types.BIGINT:
+                case Types.NUMERIC:
+                case Types.DECIMAL:
+                case Types.REAL:
+                case Types.FLOAT:
+                case Types.DOUBLE:
+                    switch (dialect) {
+                        case ORACLE:
+                            return "TO_CHAR(" + scaled + ")";
+                        case MYSQL:
+                            return "CAST(CAST(" + scaled + " AS SIGNED) AS CHAR)";
+                        case SQLSERVER:
+                            return "CAST(CAST(" + scaled + " AS BIGINT) AS VARCHAR(40))";
+                        default:
+                            return "CAST(CAST(" + scaled + " AS BIGINT) AS VARCHAR)";
+                    }
+                case Types.DATE:
+                case Types.TIMESTAMP:
+                case Types.TIMESTAMP_WITH_TIMEZONE:
+                    // Render nine fractional digits where the dialect has them, then cut to the precision kept
+                    switch (dialect) {
+                        case ORACLE:
+                            return "RPAD(TO_CHAR(CAST(" + column + " AS TIMESTAMP(9)), 'YYYY-MM-DD HH24:MI:SS.FF9'), " + width + ", '0')";
+                        case MYSQL:
+                            return "RPAD(DATE_FORMAT(" + column + ", '%Y-%m-%d %H:%i:%s.%f'), " + width + ", '0')";
+                        case SQLSERVER:
+                            // Style 121 of a DATE is the date alone, so cast to DATETIME2 to always get the time
+                            return "LEFT(CONVERT(VARCHAR(27), CAST(" + column + " AS DATETIME2(7)), 121) + '00', " + width + ")";
+                        default:
+                            return "RPAD(TO_CHAR(" + column + ", 'YYYY-MM-DD HH24:MI:SS.US'), " + width + ", '0')";
+                    }
+                default:
+                    String text;
+                    switch (dialect) {
+                        case ORACLE:
+                            text = "TO_CHAR(" + column + ")";
+                            break;
+                        case MYSQL:
+                            text = "CAST(" + column + " AS CHAR)";
+                            break;
+                        case SQLSERVER:
+                            text = "CAST(" + column + " AS VARCHAR(MAX))";
+                            break;
+                        default:
+                            text = "CAST(" + column + " AS VARCHAR)";
+                    }
+                    if (rules.isTrimStrings()) {
+                        text = dialect == DatabaseDialect.SQLSERVER ? "LTRIM(RTRIM(" + text + "))" : "TRIM(" + text + ")";
+                    }
+                    return rules.isIgnoreCase() ? "UPPER(" + text + ")" : text;
+            }
+        }
+
+        /**
+         * The character length of a text expression, counting trailing spaces on SQL Server too.
+         */
+        private String length(String text) {
+            switch (dialect) {
+                case MYSQL:
+                    return "CHAR_LENGTH(" + text + ")";
+                case SQLSERVER:
+                    return "(LEN(" + text + " + 'x') - 1)";
+                default:
+                    return "LENGTH(" + text + ")";
+            }
+        }
+
+        private String concat(List<String> parts) {
+            if (dialect == DatabaseDialect.ORACLE || dialect == DatabaseDialect.POSTGRES) {
+                return String.join(" || '|' || ", parts);
+            }
+            return "CONCAT(" + String.join(", '|', ", parts) + ")";
+        }
+
+        /**
+         * Takes 8 hex digits (32 bits) of the row's MD5 starting at the given position, as an unsigned integer.
+         */
+        private String hashPart(String row, int start) {
+            switch (dialect) {
+                case ORACLE:
+                    return "TO_NUMBER(SUBSTR(RAWTOHEX(STANDARD_HASH(" + row + ", 'MD5')), " + start + ", 8), 'XXXXXXXX')";
+                case MYSQL:
+                    return "CAST(CONV(SUBSTR(MD5(" + row + "), " + start + ", 8), 16, 10) AS UNSIGNED)";
+                case SQLSERVER:
+                    return "CAST(CAST(SUBSTRING(HASHBYTES('MD5', " + row + "), " + ((start + 1) / 2) + ", 4) AS BINARY(4)) AS BIGINT)";
+                default:
+                    return "('x' || SUBSTR(MD5(" + row + "), " + start + ", 8))::bit(32)::bigint";
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.dellpoc.utils;
+
+import com.dellpoc.constants.FrameworkConstants;
+import com.dellpoc.pojo.ColumnProfile;
+import com.dellpoc.pojo.DBEndpoint;
+import com.dellpoc.pojo.ProfileTolerance;
+import com.dellpoc.pojo.TableProfile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Profiles a query result in one streaming pass and compares profiles of source and target.
+ * Memory use is a few kilobytes per column regardless of the number of rows.
+ */
+public class ColumnProfiler {
+
+    private static final Logger log = LoggerFactory.getLogger(ColumnProfiler.class);
+
+    /**
+     * Streams the query once and profiles every column.
+     *
+     * @param conn  The database connection.
+     * @param query The SQL query.
+     * @return The profile of the result.
+     * @throws SQLException If a database access error occurs.
+     */
+    public static TableProfile profile(Connection conn, String query) throws SQLException {
+        TableProfile profile = new TableProfile();
+        try (Statement stm = DBUtils.createStreamingStatement(conn);
+             ResultSet resultSet = stm.executeQuery(query)) {
+            ResultSetMetaData md = resultSet.getMetaData();
+            ColumnProfile[] columns = new ColumnProfile[md.getColumnCount()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = new ColumnProfile(md.getColumnLabel(i + 1), FrameworkConstants.PROFILE_HLL_PRECISION);
+                profile.addColumn(columns[i]);
+            }
+            while (resultSet.next()) {
+                profile.addRow();
+                for (int i = 0; i < columns.length; i++) {
+                    columns[i].add(resultSet.getObject(i + 1));
+                }
+            }
+        }
+        return profile;
+    }
+
+    /**
+     * Profiles the query in hash-modulo partitions on pooled connections and merges the partial profiles.
+     * Rows with a NULL partition column are profiled with partition 0.
+     *
+     * @param endpoint        The database endpoint.
+     * @param query           The SQL query.
+     * @param partitionColumn The integral column used to split the data.
+     * @param partitions      The number of partitions.
+     * @return The merged profile of the result.
+     * @throws Exception If any partition fails; the remaining partitions are cancelled.
+     */
+    public static TableProfile profile(DBEndpoint endpoint, String query, String partitionColumn, int partitions) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(partitions, ConnectionPool.getMaxSize())));
+        List<Future<TableProfile>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < partitions; i++) {
+                String predicate = endpoint.getDialect().modulo(partitionColumn, partitions) + " = " + i;
+                if (i == 0) {
+                    predicate = "(" + predicate + ") OR " + partitionColumn + " IS NULL";
+                }
+                String partQuery = "SELECT * FROM (" + query + ") pq WHERE " + predicate;
+                futures.add(executor.submit(QueryMetrics.inCurrentScenario(CursorTracker.inCurrentScope(() -> {
+                    try (Connection conn = ConnectionPool.getConnection(endpoint.getUrl(), endpoint.getUser(), endpoint.getPassword())) {
+                        return profile(conn, partQuery);
+                    }
+                }))));
+            }
+
+            TableProfile profile = null;
+            for (Future<TableProfile> future : futures) {
+                if (profile == null) {
+                    profile = future.get();
+                } else {
+                    profile.merge(future.get());
+                }
+            }
+            return profile;
+        } catch (ExecutionException e) {
+            for (Future<TableProfile> future : futures) {
+                future.cancel(true);
+            }
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Lists every statistic of the target profile that is outside the tolerance of the source profile.
+     *
+     * @param source    The source profile.
+     * @param target    The target profile.
+     * @param tolerance The allowed drift.
+     * @return One line per difference; empty if the profiles agree.
+     */
+    public static List<String> diff(TableProfile source, TableProfile target, ProfileTolerance tolerance) {
+        List<String> differences = new ArrayList<>();
+        if (relative(source.getRowCount(), target.getRowCount()) > tolerance.getCountTolerance()) {
+            differences.add("Row count: " + source.getRowCount() + " -> " + target.getRowCount());
+        }
+        for (ColumnProfile s : source.getColumns().values()) {
+            ColumnProfile t = target.getColumn(s.getName());
+            if (t == null) {
+                differences.add(s.getName() + ": missing in target");
+                continue;
+            }
+            String column = s.getName() + " ";
+            if (relative(s.getNullCount(), t.getNullCount()) > tolerance.getCountTolerance()) {
+                differences.add(column + "null count: " + s.getNullCount() + " -> " + t.getNullCount());
+            }
+            if (relative(s.getDistinctEstimate(), t.getDistinctEstimate()) > tolerance.getDistinctTolerance()) {
+                differences.add(column + "distinct estimate: " + s.getDistinctEstimate() + " -> " + t.getDistinctEstimate());
+            }
+            if (s.isNumeric() || t.isNumeric()) {
+                compareValue(differences, column + "min", s.getMinNumber(), t.getMinNumber(), tolerance);
+                compareValue(differences, column + "max", s.getMaxNumber(), t.getMaxNumber(), tolerance);
+                compareValue(differences, column + "sum", s.getSum(), t.getSum(), tolerance);
+                compareValue(differences, column + "mean", s.getMean(), t.getMean(), tolerance);
+            } else {
+                if (!Objects.equals(s.getMinText(), t.getMinText())) {
+                    differences.add(column + "min: " + s.getMinText() + " -> " + t.getMinText());
+                }
+                if (!Objects.equals(s.getMaxText(), t.getMaxText())) {
+                    differences.add(column + "max: " + s.getMaxText() + " -> " + t.getMaxText());
+                }
+            }
+            double distance = histogramDistance(s.getHistogram(), t.getHistogram());
+            if (distance > tolerance.getHistogramTolerance()) {
+                differences.add(String.format("%shistogram: %.4f of values in different bins", column, distance));
+            }
+        }
+        for (ColumnProfile t : target.getColumns().values()) {
+            if (source.getColumn(t.getName()) == null) {
+                differences.add(t.getName() + ": not present in source");
+            }
+        }
+        if (!differences.isEmpty()) {
+            log.warn("Profiles differ:\n  {}", String.join("\n  ", differences));
+        }
+        return differences;
+    }
+
+    private static void compareValue(List<String> differences, String label, double source, double target, ProfileTolerance tolerance) {
+        if (Double.isNaN(source) && Double.isNaN(target)) {
+            return;
+        }
+        if (Double.isNaN(source) || Double.isNaN(target) || relative(source, target) > tolerance.getValueTolerance()) {
+            differences.add(label + ": " + source + " -> " + target);
+        }
+    }
+
+    private static double relative(double a, double b) {
+        if (a == b) {
+            return 0;
+        }
+        return Math.abs(a - b) / Math.max(Math.abs(a), Math.abs(b));
+    }
+
+    /**
+     * Total variation distance between two histograms after normalizing each to a distribution.
+     */
+    static double histogramDistance(long[] a, long[] b) {
+        long totalA = 0;
+        long totalB = 0;
+        for (int i = 0; i < a.length; i++) {
+            totalA += a[i];
+            totalB += b[i];
+        }
+        if (totalA == 0 || totalB == 0) {
+            return totalA == totalB ? 0 : 1;
+        }
+        double distance = 0;
+        for (int i = 0; i < a.length; i++) {
+            distance += Math.abs((double) a[i] / totalA - (double) b[i] / totalB);
+        }
+        return distance / 2;
+    }
+}
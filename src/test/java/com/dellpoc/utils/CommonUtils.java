@@ -1,5 +1,6 @@
 package com.dellpoc.utils;
 
+import com.dellpoc.pojo.ReconciliationResult;
 import com.jcraft.jsch.*;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
@@ -232,4 +233,29 @@ public class CommonUtils {
         List<String> file2Lines = Files.readAllLines(Paths.get(filePath2));
         return file1Lines.equals(file2Lines);
     }
+
+    /**
+     * Compares the data between two files regardless of line order, without loading either file into memory.
+     *
+     * @param filePath1 The path to the first file.
+     * @param filePath2 The path to the second file.
+     * @return True if both files contain the same lines the same number of times, false otherwise.
+     * @throws Exception If an I/O error occurs.
+     */
+    public static boolean compareDataBetweenFilesUnordered(String filePath1, String filePath2) throws Exception {
+        return new ExternalSortDiff(Collections.emptyList()).diffLines(Paths.get(filePath1), Paths.get(filePath2)).isMatch();
+    }
+
+    /**
+     * Reconciles two CSV files with a header row by key, regardless of row order, without loading either file into memory.
+     *
+     * @param filePath1  The path to the source file.
+     * @param filePath2  The path to the target file.
+     * @param keyColumns The columns that uniquely identify a row, or an empty list to compare whole rows.
+     * @return The missing, extra and changed rows with capped samples.
+     * @throws Exception If an I/O error occurs.
+     */
+    public static ReconciliationResult reconcileCSVFiles(String filePath1, String filePath2, List<String> keyColumns) throws Exception {
+        return new ExternalSortDiff(keyColumns).diffCsv(Paths.get(filePath1), Paths.get(filePath2));
+    }
 }
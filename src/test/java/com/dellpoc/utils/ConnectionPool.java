@@ -0,0 +1,381 @@
+package com.dellpoc.utils;
+
+import com.dellpoc.constants.FrameworkConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Small JDBC connection pool keyed by (url, user, password), so a wrong password is never served a connection
+ * opened with the right one. Borrowed connections are proxies whose close() returns the physical connection to
+ * the pool, so existing callers (teardownConnection, try-with-resources) keep working unchanged.
+ * Each pool lends at most -Ddb.poolMaxSize connections (default {@link FrameworkConstants#POOL_MAX_SIZE}); a borrow
+ * beyond that waits up to -Ddb.poolBorrowTimeoutMs (default {@link FrameworkConstants#POOL_BORROW_TIMEOUT_MS}) for
+ * one to be returned.
+ */
+public class ConnectionPool {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionPool.class);
+    private static final Map<String, ConnectionPool> POOLS = new ConcurrentHashMap<>();
+    private static final int MAX_SIZE = Integer.getInteger("db.poolMaxSize", FrameworkConstants.POOL_MAX_SIZE);
+    private static final long BORROW_TIMEOUT_MS = Long.getLong("db.poolBorrowTimeoutMs", FrameworkConstants.POOL_BORROW_TIMEOUT_MS);
+    private static final ScheduledExecutorService HOUSEKEEPER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "db-pool-housekeeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        HOUSEKEEPER.scheduleWithFixedDelay(ConnectionPool::housekeepAll,
+                FrameworkConstants.POOL_HOUSEKEEPING_INTERVAL_MS, FrameworkConstants.POOL_HOUSEKEEPING_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(ConnectionPool::shutdownAll, "db-pool-shutdown"));
+    }
+
+    private final String key;
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final Deque<PooledEntry> idle = new ArrayDeque<>();
+    private final Set<PooledEntry> borrowed = ConcurrentHashMap.newKeySet();
+    private int total;
+
+    private ConnectionPool(String key, String url, String user, String password, int minSize, int maxSize) {
+        this.key = key;
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Borrows a validated connection from the pool for (url, user, password), creating the pool on first use.
+     * Closing the returned connection hands it back to the pool.
+     *
+     * @param url      The database URL.
+     * @param user     The database username.
+     * @param password The database password.
+     * @return A pooled database connection.
+     * @throws SQLException If no valid connection can be obtained within the borrow timeout.
+     */
+    public static Connection getConnection(String url, String user, String password) throws SQLException {
+        ConnectionPool pool = POOLS.computeIfAbsent(url + "|" + user + "|" + fingerprint(password), key -> new ConnectionPool(key, url, user, password,
+                FrameworkConstants.POOL_MIN_SIZE, MAX_SIZE));
+        long start = System.nanoTime();
+        Connection conn = pool.borrow();
+        QueryMetrics.recordConnect(user + "@" + url, System.nanoTime() - start);
+        return conn;
+    }
+
+    /**
+     * @return The most connections one pool lends at a time.
+     */
+    public static int getMaxSize() {
+        return MAX_SIZE;
+    }
+
+    /**
+     * Closes every idle connection in every pool. Borrowed connections are closed when they are returned.
+     */
+    public static void shutdownAll() {
+        for (ConnectionPool pool : POOLS.values()) {
+            pool.closeIdle(0);
+        }
+        POOLS.clear();
+    }
+
+    /**
+     * Returns the physical connection behind a pooled connection, or the connection itself if it is not pooled.
+     * Used to key per-connection caches so they survive a connection being returned and borrowed again.
+     *
+     * @param conn The database connection.
+     * @return The physical connection.
+     */
+    public static Connection physical(Connection conn) {
+        if (Proxy.isProxyClass(conn.getClass()) && Proxy.getInvocationHandler(conn) instanceof ConnectionPool.Handler) {
+            return ((ConnectionPool.Handler) Proxy.getInvocationHandler(conn)).entry.physical;
+        }
+        return conn;
+    }
+
+    /**
+     * Returns the (url, user, password) key of the pool a connection was borrowed from, or null if it is not pooled.
+     * Every connection with the same key reads the same database as the same user.
+     *
+     * @param conn The database connection.
+     * @return The pool key, or null.
+     */
+    public static String poolKey(Connection conn) {
+        if (Proxy.isProxyClass(conn.getClass()) && Proxy.getInvocationHandler(conn) instanceof ConnectionPool.Handler) {
+            return ((ConnectionPool.Handler) Proxy.getInvocationHandler(conn)).poolKey();
+        }
+        return null;
+    }
+
+    /**
+     * Borrows a second connection when two results must be open at once and both were asked for on the same
+     * physical connection, which a streaming statement does not allow: MySQL rejects the second query while the
+     * first streams, and restoring auto-commit after one Postgres cursor would close the other. The second
+     * connection comes from the same pool, so it reads the same database as the same user, but it does not see
+     * uncommitted changes made on the first.
+     *
+     * @param first  The connection of the first result.
+     * @param second The connection of the second result.
+     * @return Another pooled connection like second, which the caller must close, or null if the connections differ.
+     * @throws SQLException If no pooled connection can be obtained.
+     * @throws IllegalArgumentException If the shared connection is not pooled.
+     */
+    public static Connection borrowIfShared(Connection first, Connection second) throws SQLException {
+        if (physical(first) != physical(second)) {
+            return null;
+        }
+        String key = poolKey(second);
+        ConnectionPool pool = key == null ? null : POOLS.get(key);
+        if (pool == null) {
+            throw new IllegalArgumentException("Both results are read from the same connection, which is not pooled; pass two connections");
+        }
+        long start = System.nanoTime();
+        Connection conn = pool.borrow();
+        QueryMetrics.recordConnect(pool.user + "@" + pool.url, System.nanoTime() - start);
+        return conn;
+    }
+
+    private Connection borrow() throws SQLException {
+        long deadline = System.currentTimeMillis() + BORROW_TIMEOUT_MS;
+        while (true) {
+            PooledEntry entry = null;
+            boolean create = false;
+            synchronized (this) {
+                while (entry == null && !create) {
+                    if (!idle.isEmpty()) {
+                        entry = idle.pop();
+                    } else if (total < maxSize) {
+                        total++;
+                        create = true;
+                    } else {
+                        long wait = deadline - System.currentTimeMillis();
+                        if (wait <= 0) {
+                            throw new SQLException("Timed out waiting for a pooled connection to " + user + "@" + url
+                                    + " (max " + maxSize + ", borrowed " + borrowed.size() + ")");
+                        }
+                        try {
+                            wait(wait);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new SQLException("Interrupted while waiting for a pooled connection", e);
+                        }
+                    }
+                }
+            }
+
+            if (create) {
+                try {
+                    entry = new PooledEntry(DriverManager.getConnection(url, user, password));
+                    log.info("Opened pooled connection to {}@{}", user, url);
+                } catch (SQLException e) {
+                    discard(null);
+                    throw e;
+                }
+            } else if (!isValid(entry)) {
+                discard(entry);
+                continue;
+            }
+
+            entry.borrowedAt = System.currentTimeMillis();
+            entry.borrowSite = new Throwable("Connection borrowed here");
+            entry.leakReported = false;
+            borrowed.add(entry);
+            return entry.newProxy();
+        }
+    }
+
+    private void release(PooledEntry entry) {
+        borrowed.remove(entry);
+        try {
+            if (entry.physical.isClosed()) {
+                discard(entry);
+                return;
+            }
+            if (!entry.physical.getAutoCommit()) {
+                entry.physical.rollback();
+                entry.physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            log.warn("Discarding pooled connection that could not be reset: {}", e.getMessage());
+            discard(entry);
+            return;
+        }
+        synchronized (this) {
+            entry.idleSince = System.currentTimeMillis();
+            idle.push(entry);
+            notifyAll();
+        }
+    }
+
+    private void discard(PooledEntry entry) {
+        if (entry != null) {
+            StatementCache.clear(entry.physical);
+            closeQuietly(entry.physical);
+        }
+        synchronized (this) {
+            total--;
+            notifyAll();
+        }
+    }
+
+    private static boolean isValid(PooledEntry entry) {
+        try {
+            return entry.physical.isValid(FrameworkConstants.POOL_VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static void housekeepAll() {
+        for (ConnectionPool pool : POOLS.values()) {
+            pool.closeIdle(FrameworkConstants.POOL_IDLE_TIMEOUT_MS);
+            pool.reportLeaks();
+        }
+    }
+
+    /**
+     * Closes idle connections that have been unused for longer than the given time, keeping minSize
+     * connections open unless maxIdleMillis is 0.
+     */
+    private void closeIdle(long maxIdleMillis) {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Iterator<PooledEntry> it = idle.descendingIterator();
+            while (it.hasNext()) {
+                PooledEntry entry = it.next();
+                if (maxIdleMillis > 0 && (total <= minSize || now - entry.idleSince < maxIdleMillis)) {
+                    continue;
+                }
+                it.remove();
+                total--;
+                StatementCache.clear(entry.physical);
+                closeQuietly(entry.physical);
+            }
+        }
+    }
+
+    private void reportLeaks() {
+        long now = System.currentTimeMillis();
+        for (PooledEntry entry : borrowed) {
+            if (!entry.leakReported && now - entry.borrowedAt > FrameworkConstants.POOL_LEAK_THRESHOLD_MS) {
+                entry.leakReported = true;
+                log.warn("Possible connection leak: connection to {}@{} borrowed {} ms ago and not returned",
+                        user, url, now - entry.borrowedAt, entry.borrowSite);
+            }
+        }
+    }
+
+    /**
+     * Hashes a password for the pool key, so the key can be logged and kept in caches without the password.
+     */
+    private static String fingerprint(String password) {
+        if (password == null) {
+            return "";
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(password.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            log.warn("Error closing pooled connection: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * A physical connection plus its borrow bookkeeping.
+     */
+    private class PooledEntry {
+        private final Connection physical;
+        private long idleSince;
+        private long borrowedAt;
+        private Throwable borrowSite;
+        private volatile boolean leakReported;
+
+        PooledEntry(Connection physical) {
+            this.physical = physical;
+        }
+
+        Connection newProxy() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, new Handler(this));
+        }
+    }
+
+    /**
+     * Delegates to the physical connection until close(), which returns it to the pool exactly once.
+     */
+    private class Handler implements InvocationHandler {
+        private final PooledEntry entry;
+        private boolean closed;
+
+        Handler(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        String poolKey() {
+            return key;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(entry);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || entry.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + entry.physical + "]";
+                default:
+                    if (closed) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+                    try {
+                        return method.invoke(entry.physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.dellpoc.utils;
+
+import com.dellpoc.constants.FrameworkConstants;
+import com.dellpoc.pojo.DBEndpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opens and validates a pooled connection to every configured database at the same time before the first
+ * scenario. DNS, TLS and authentication are paid once, concurrently, and the connections stay idle in the
+ * {@link ConnectionPool} for the scenarios to reuse. A database that does not answer within the timeout
+ * fails the run straight away instead of inside the first scenario that uses it.
+ */
+public class ConnectionWarmUp {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionWarmUp.class);
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    /**
+     * Connects to every endpoint in parallel and reports the handshake latency of each.
+     *
+     * @param endpoints     The database endpoints by name.
+     * @param timeoutMillis How long to wait for all endpoints to connect and validate.
+     * @return The handshake latency in milliseconds by endpoint name.
+     * @throws SQLException If any endpoint cannot be connected to or validated within the timeout.
+     */
+    public static Map<String, Double> warmUp(Map<String, DBEndpoint> endpoints, long timeoutMillis) throws SQLException {
+        Map<String, Double> latencies = new LinkedHashMap<>();
+        if (endpoints.isEmpty()) {
+            return latencies;
+        }
+
+        int loginTimeout = DriverManager.getLoginTimeout();
+        DriverManager.setLoginTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeoutMillis)));
+        ExecutorService executor = Executors.newFixedThreadPool(endpoints.size(), r -> {
+            Thread thread = new Thread(r, "db-warmup-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Map<String, Future<Long>> futures = new LinkedHashMap<>();
+            for (Map.Entry<String, DBEndpoint> entry : endpoints.entrySet()) {
+                futures.put(entry.getKey(), executor.submit(() -> connect(entry.getValue())));
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            List<String> failures = new ArrayList<>();
+            for (Map.Entry<String, Future<Long>> entry : futures.entrySet()) {
+                String name = entry.getKey();
+                DBEndpoint endpoint = endpoints.get(name);
+                try {
+                    long nanos = entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    latencies.put(name, nanos / 1_000_000.0);
+                    log.info("Warmed up {} ({}) in {} ms", name, endpoint, String.format("%.1f", nanos / 1_000_000.0));
+                } catch (TimeoutException e) {
+                    failures.add(name + " (" + endpoint + "): no connection within " + timeoutMillis + " ms");
+                } catch (ExecutionException e) {
+                    failures.add(name + " (" + endpoint + "): " + e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while warming up database connections", e);
+                }
+            }
+
+            if (!failures.isEmpty()) {
+                failures.forEach(log::error);
+                throw new SQLException("Database warm-up failed for " + failures.size() + " of " + endpoints.size()
+                        + " endpoints: " + String.join("; ", failures));
+            }
+            return latencies;
+        } finally {
+            executor.shutdownNow();
+            DriverManager.setLoginTimeout(loginTimeout);
+        }
+    }
+
+    private static long connect(DBEndpoint endpoint) throws SQLException {
+        long start = System.nanoTime();
+        try (Connection conn = ConnectionPool.getConnection(endpoint.getUrl(), endpoint.getUser(), endpoint.getPassword())) {
+            if (!conn.isValid(FrameworkConstants.POOL_VALIDATION_TIMEOUT_SECONDS)) {
+                throw new SQLException("Connection to " + endpoint + " is not valid");
+            }
+        }
+        return System.nanoTime() - start;
+    }
+}
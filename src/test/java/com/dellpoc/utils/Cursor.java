@@ -0,0 +1,37 @@
+package com.dellpoc.utils;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * An open query result that owns its statement. Closing the cursor closes the result set and the statement,
+ * so a try-with-resources block scopes the whole server-side cursor.
+ */
+public class Cursor implements AutoCloseable {
+    private final Statement statement;
+    private final ResultSet resultSet;
+
+    Cursor(Statement statement, ResultSet resultSet) {
+        this.statement = statement;
+        this.resultSet = resultSet;
+    }
+
+    public ResultSet getResultSet() {
+        return resultSet;
+    }
+
+    public boolean next() throws SQLException {
+        return resultSet.next();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            resultSet.close();
+        } finally {
+            statement.close();
+            CursorTracker.unregister(statement);
+        }
+    }
+}
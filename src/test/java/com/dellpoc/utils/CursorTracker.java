@@ -0,0 +1,129 @@
+package com.dellpoc.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps track of every statement DBUtils opens so that handles a caller forgot to close can be reported
+ * and closed at the end of a scenario, before they pile up into ORA-01000 or server-side cursor memory.
+ * Statements are tracked per thread, since a scenario runs on one thread, so scenarios running in parallel
+ * only see and close their own statements. Tasks the scenario hands to worker threads are wrapped with
+ * {@link #inCurrentScope(Callable)} so their statements count as the scenario's.
+ * Run with -Ddb.cursorTrace=true to record the stack trace of the code that opened each statement.
+ */
+public class CursorTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(CursorTracker.class);
+    private static final boolean TRACE = Boolean.getBoolean("db.cursorTrace");
+    private static final int PRUNE_INTERVAL = 512;
+    private static final ThreadLocal<Map<Statement, OpenSite>> SCOPE = ThreadLocal.withInitial(ConcurrentHashMap::new);
+    private static final AtomicInteger registrations = new AtomicInteger();
+
+    /**
+     * Registers a newly created statement.
+     *
+     * @param stm The statement.
+     * @return The same statement.
+     */
+    public static <S extends Statement> S register(S stm) {
+        SCOPE.get().put(stm, new OpenSite());
+        if (registrations.incrementAndGet() % PRUNE_INTERVAL == 0) {
+            prune();
+        }
+        return stm;
+    }
+
+    /**
+     * Stops tracking a statement that its owner has closed.
+     *
+     * @param stm The statement.
+     */
+    public static void unregister(Statement stm) {
+        SCOPE.get().remove(stm);
+    }
+
+    /**
+     * Wraps a task for another thread so that the statements it opens are tracked with the statements of
+     * the current thread, and closed by its {@link #closeLeaked()}.
+     *
+     * @param task The task.
+     * @return The wrapped task.
+     */
+    public static <V> Callable<V> inCurrentScope(Callable<V> task) {
+        Map<Statement, OpenSite> scope = SCOPE.get();
+        return () -> {
+            Map<Statement, OpenSite> previous = SCOPE.get();
+            SCOPE.set(scope);
+            try {
+                return task.call();
+            } finally {
+                SCOPE.set(previous);
+            }
+        };
+    }
+
+    /**
+     * @return The number of statements tracked for the current thread that are still open.
+     */
+    public static int getOpenCount() {
+        prune();
+        return SCOPE.get().size();
+    }
+
+    /**
+     * Closes every statement tracked for the current thread that is still open, together with its result set,
+     * and logs where each one was opened.
+     *
+     * @return The number of leaked statements that were closed.
+     */
+    public static int closeLeaked() {
+        int leaked = 0;
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Statement, OpenSite>> it = SCOPE.get().entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Statement, OpenSite> entry = it.next();
+            it.remove();
+            try {
+                if (!entry.getKey().isClosed()) {
+                    leaked++;
+                    OpenSite site = entry.getValue();
+                    log.warn("Closing leaked statement opened {} ms ago on thread {}", now - site.openedAt, site.thread, site.trace);
+                    entry.getKey().close();
+                }
+            } catch (SQLException e) {
+                log.warn("Error closing leaked statement: {}", e.getMessage());
+            }
+        }
+        if (leaked > 0) {
+            log.warn("Closed {} leaked statements", leaked);
+        }
+        return leaked;
+    }
+
+    private static void prune() {
+        SCOPE.get().keySet().removeIf(stm -> {
+            try {
+                return stm.isClosed();
+            } catch (SQLException e) {
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Where and when a statement was opened.
+     */
+    private static class OpenSite {
+        private final String thread = Thread.currentThread().getName();
+        private final long openedAt = System.currentTimeMillis();
+        private final Throwable trace = TRACE ? new Throwable("Statement opened here") : null;
+    }
+}
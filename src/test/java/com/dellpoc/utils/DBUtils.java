@@ -1,10 +1,27 @@
 package com.dellpoc.utils;
 
+import com.dellpoc.constants.FrameworkConstants;
+import com.dellpoc.enums.DatabaseDialect;
+import com.dellpoc.enums.PartitionStrategy;
+import com.dellpoc.pojo.ColumnInfo;
+import com.dellpoc.pojo.ColumnarResult;
+import com.dellpoc.pojo.ComparisonRules;
+import com.dellpoc.pojo.DBEndpoint;
+import com.dellpoc.pojo.LoadResult;
+import com.dellpoc.pojo.ProfileTolerance;
+import com.dellpoc.pojo.ReconciliationResult;
+import com.dellpoc.pojo.SamplingResult;
+import com.dellpoc.pojo.TableProfile;
+import org.apache.commons.csv.CSVRecord;
 import org.apache.log4j.Logger;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -12,9 +29,19 @@ public class DBUtils {
 
     private static Connection connection;
     private static final Logger log = Logger.getLogger(DBUtils.class);
+    private static final int FETCH_SIZE = Integer.getInteger("db.fetchSize", FrameworkConstants.DEFAULT_FETCH_SIZE);
+
+    /**
+     * Reads a query result while its cursor is open.
+     */
+    public interface ResultSetHandler<T> {
+        T handle(ResultSet resultSet) throws Exception;
+    }
 
     /**
      * Connects to the database using the provided URL, username, and password.
+     * The connection is borrowed from the pool for (url, user, password) and returned to it on close.
+     * The previous connection, if any, is returned to its pool first.
      *
      * @param url      The database URL.
      * @param user     The database username.
@@ -22,21 +49,38 @@ public class DBUtils {
      * @throws SQLException If a database access error occurs.
      */
     public static void connectToDB(String url, String user, String password) throws SQLException {
-        connection = DriverManager.getConnection(url, user, password);
+        closeConnection();
+        connection = ConnectionPool.getConnection(url, user, password);
     }
 
     /**
      * Executes a SQL query and returns the result set.
+     * The statement closes when the result set is closed; prefer {@link #query(String, ResultSetHandler)},
+     * which closes both. Result sets left open are closed by {@link CursorTracker} at the end of the scenario.
      *
      * @param query The SQL query to execute.
      * @return The result set of the query.
      * @throws SQLException If a database access error occurs.
      */
     public static ResultSet executeQuery(String query) throws SQLException {
-        Statement statement = connection.createStatement();
+        Statement statement = createCursorStatement(connection);
+        statement.closeOnCompletion();
         return statement.executeQuery(query);
     }
 
+    /**
+     * Runs a SQL query on the current connection and hands the result to the handler, closing the
+     * result set and statement when the handler returns.
+     *
+     * @param query   The SQL query to execute.
+     * @param handler Reads the result set.
+     * @return The handler's result.
+     * @throws Exception If the query or the handler fails.
+     */
+    public static <T> T query(String query, ResultSetHandler<T> handler) throws Exception {
+        return query(connection, query, handler);
+    }
+
     /**
      * Closes the database connection.
      *
@@ -50,6 +94,9 @@ public class DBUtils {
 
     /**
      * Connects to a MemSQL database.
+     * The connection is borrowed from a pool; close it when done, since each pool lends at most -Ddb.poolMaxSize
+     * connections (default {@link FrameworkConstants#POOL_MAX_SIZE}) and a call beyond that fails with an
+     * SQLException after waiting -Ddb.poolBorrowTimeoutMs for one to be returned.
      *
      * @param host   The database host.
      * @param dbName The database name.
@@ -59,11 +106,11 @@ public class DBUtils {
      * @throws Exception If an error occurs while connecting to the database.
      */
     public static Connection MemSQLconnect(String host, String dbName, String user, String pass) throws Exception {
-        String url = "jdbc:mysql://" + host + ":3306/" + dbName + "?useLegacyDatetimeCode=false&serverTimezone=UTC&useSSL=true&verifyServerCertificate=false";
+        String url = "jdbc:mysql://" + host + ":3306/" + dbName + "?useLegacyDatetimeCode=false&serverTimezone=UTC&useSSL=true&verifyServerCertificate=false&rewriteBatchedStatements=true";
         Connection conn = null;
 
         try {
-            conn = DriverManager.getConnection(url, user, pass);
+            conn = ConnectionPool.getConnection(url, user, pass);
             if (!conn.isClosed()) {
                 log.info("Connected to MemSQL Host " + url);
             }
@@ -80,6 +127,7 @@ public class DBUtils {
 
     /**
      * Connects to an Oracle database.
+     * The connection becomes the current connection, replacing and returning the previous one to its pool.
      *
      * @param host        The database host.
      * @param serviceName The database service name.
@@ -95,7 +143,7 @@ public class DBUtils {
         }
 
         try {
-            connection = DriverManager.getConnection(url, user, pass);
+            connection = ConnectionPool.getConnection(url, user, pass);
             if (!connection.isClosed()) {
                 log.info("Connected to Oracle Host " + host);
             }
@@ -112,6 +160,9 @@ public class DBUtils {
 
     /**
      * Connects to an Azure SQL database.
+     * The connection is borrowed from a pool; close it when done, since each pool lends at most -Ddb.poolMaxSize
+     * connections (default {@link FrameworkConstants#POOL_MAX_SIZE}) and a call beyond that fails with an
+     * SQLException after waiting -Ddb.poolBorrowTimeoutMs for one to be returned.
      *
      * @param host   The database host.
      * @param dbName The database name.
@@ -125,7 +176,7 @@ public class DBUtils {
         Connection conn = null;
 
         try {
-            conn = DriverManager.getConnection(url, user, pass);
+            conn = ConnectionPool.getConnection(url, user, pass);
             if (!conn.isClosed()) {
                 log.info("Connected to Azure SQL Host " + url);
             }
@@ -142,6 +193,9 @@ public class DBUtils {
 
     /**
      * Connects to an AWS RDS database.
+     * The connection is borrowed from a pool; close it when done, since each pool lends at most -Ddb.poolMaxSize
+     * connections (default {@link FrameworkConstants#POOL_MAX_SIZE}) and a call beyond that fails with an
+     * SQLException after waiting -Ddb.poolBorrowTimeoutMs for one to be returned.
      *
      * @param host   The database host.
      * @param dbName The database name.
@@ -151,11 +205,11 @@ public class DBUtils {
      * @throws Exception If an error occurs while connecting to the database.
      */
     public static Connection AWSRDSConnect(String host, String dbName, String user, String pass) throws Exception {
-        String url = "jdbc:mysql://" + host + ":3306/" + dbName + "?useSSL=false";
+        String url = "jdbc:mysql://" + host + ":3306/" + dbName + "?useSSL=false&rewriteBatchedStatements=true";
         Connection conn = null;
 
         try {
-            conn = DriverManager.getConnection(url, user, pass);
+            conn = ConnectionPool.getConnection(url, user, pass);
             if (!conn.isClosed()) {
                 log.info("Connected to AWS RDS Host " + url);
             }
@@ -172,6 +226,9 @@ public class DBUtils {
 
     /**
      * Connects to a Google Cloud SQL database.
+     * The connection is borrowed from a pool; close it when done, since each pool lends at most -Ddb.poolMaxSize
+     * connections (default {@link FrameworkConstants#POOL_MAX_SIZE}) and a call beyond that fails with an
+     * SQLException after waiting -Ddb.poolBorrowTimeoutMs for one to be returned.
      *
      * @param host   The database host.
      * @param dbName The database name.
@@ -181,11 +238,11 @@ public class DBUtils {
      * @throws Exception If an error occurs while connecting to the database.
      */
     public static Connection GoogleCloudSQLConnect(String host, String dbName, String user, String pass) throws Exception {
-        String url = "jdbc:mysql://" + host + ":3306/" + dbName + "?useSSL=false";
+        String url = "jdbc:mysql://" + host + ":3306/" + dbName + "?useSSL=false&rewriteBatchedStatements=true";
         Connection conn = null;
 
         try {
-            conn = DriverManager.getConnection(url, user, pass);
+            conn = ConnectionPool.getConnection(url, user, pass);
             if (!conn.isClosed()) {
                 log.info("Connected to Google Cloud SQL Host " + url);
             }
@@ -202,6 +259,9 @@ public class DBUtils {
 
     /**
      * Executes a SQL query and returns the result set.
+     * The statement closes when the result set is closed; prefer {@link #query(Connection, String, ResultSetHandler)}
+     * or {@link #openCursor(Connection, String)}. Result sets left open are closed by {@link CursorTracker}
+     * at the end of the scenario.
      *
      * @param conn        The database connection.
      * @param queryString The SQL query to execute.
@@ -212,7 +272,8 @@ public class DBUtils {
         ResultSet resultSet = null;
 
         try {
-            Statement stm = conn.createStatement();
+            Statement stm = createCursorStatement(conn);
+            stm.closeOnCompletion();
             resultSet = stm.executeQuery(queryString);
             if (!resultSet.isBeforeFirst()) {
                 log.info("ResultSet is empty");
@@ -228,8 +289,134 @@ public class DBUtils {
         return resultSet;
     }
 
+    /**
+     * Opens a cursor over the result of a SQL query. Closing the cursor closes the result set and statement.
+     *
+     * @param conn  The database connection.
+     * @param query The SQL query to execute.
+     * @return The open cursor.
+     * @throws SQLException If a database access error occurs.
+     */
+    public static Cursor openCursor(Connection conn, String query) throws SQLException {
+        Statement stm = createCursorStatement(conn);
+        try {
+            return new Cursor(stm, stm.executeQuery(query));
+        } catch (SQLException e) {
+            stm.close();
+            CursorTracker.unregister(stm);
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a cursor over the result of a SQL query on a streaming statement, see
+     * {@link #createStreamingStatement(Connection, int)}. Closing the cursor closes the result set and statement.
+     *
+     * @param conn  The database connection.
+     * @param query The SQL query to execute.
+     * @return The open cursor.
+     * @throws SQLException If a database access error occurs.
+     */
+    public static Cursor openStreamingCursor(Connection conn, String query) throws SQLException {
+        Statement stm = createStreamingStatement(conn);
+        try {
+            return new Cursor(stm, stm.executeQuery(query));
+        } catch (SQLException e) {
+            stm.close();
+            CursorTracker.unregister(stm);
+            throw e;
+        }
+    }
+
+    /**
+     * Runs a SQL query and hands the result to the handler, closing the result set and statement
+     * when the handler returns or throws.
+     *
+     * @param conn    The database connection.
+     * @param query   The SQL query to execute.
+     * @param handler Reads the result set.
+     * @return The handler's result.
+     * @throws Exception If the query or the handler fails.
+     */
+    public static <T> T query(Connection conn, String query, ResultSetHandler<T> handler) throws Exception {
+        try (Cursor cursor = openCursor(conn, query)) {
+            return handler.handle(cursor.getResultSet());
+        } catch (NullPointerException | SQLException e) {
+            log.error(e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Creates a forward-only, read-only statement with a fetch size suited to scanning large results.
+     *
+     * @param conn The database connection.
+     * @return The statement.
+     * @throws SQLException If a database access error occurs.
+     */
+    public static Statement createStreamingStatement(Connection conn) throws SQLException {
+        return createStreamingStatement(conn, FETCH_SIZE);
+    }
+
+    /**
+     * Creates a forward-only, read-only statement that streams its result in chunks of fetchSize rows
+     * using the mechanism the connection's dialect supports. On MySQL-protocol databases the result must
+     * be read completely or closed before the connection is used again. On Postgres auto-commit is
+     * switched off while the statement is open and restored when it is closed.
+     *
+     * @param conn      The database connection.
+     * @param fetchSize The number of rows per round trip.
+     * @return The statement.
+     * @throws SQLException If a database access error occurs.
+     */
+    public static Statement createStreamingStatement(Connection conn, int fetchSize) throws SQLException {
+        DatabaseDialect dialect = DatabaseDialect.fromConnection(conn);
+        Statement stm = QueryMetrics.instrument(conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY));
+        dialect.configureFetch(stm, fetchSize, true);
+        ParallelQueries.track(stm);
+        if (dialect.needsTransactionForCursor() && conn.getAutoCommit()) {
+            conn.setAutoCommit(false);
+            return CursorTracker.register(restoreAutoCommitOnClose(stm, conn));
+        }
+        return CursorTracker.register(stm);
+    }
+
+    /**
+     * Creates a forward-only, read-only statement with the dialect's fetch size that does not tie up the
+     * connection, for results that may be read partially or interleaved with other statements.
+     *
+     * @param conn The database connection.
+     * @return The statement.
+     * @throws SQLException If a database access error occurs.
+     */
+    public static Statement createCursorStatement(Connection conn) throws SQLException {
+        Statement stm = QueryMetrics.instrument(conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY));
+        DatabaseDialect.fromConnection(conn).configureFetch(stm, FETCH_SIZE, false);
+        return CursorTracker.register(ParallelQueries.track(stm));
+    }
+
+    private static Statement restoreAutoCommitOnClose(Statement stm, Connection conn) {
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{Statement.class}, (proxy, method, args) -> {
+            if ("equals".equals(method.getName())) {
+                return proxy == args[0];
+            } else if ("hashCode".equals(method.getName())) {
+                return System.identityHashCode(proxy);
+            }
+            try {
+                Object result = method.invoke(stm, args);
+                if ("close".equals(method.getName()) && !conn.isClosed()) {
+                    conn.setAutoCommit(true);
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
     /**
      * Retrieves a single string value from the result of a SQL query.
+     * Served from the {@link QueryResultCache} when it is enabled.
      *
      * @param conn        The database connection.
      * @param queryString The SQL query to execute.
@@ -237,23 +424,20 @@ public class DBUtils {
      * @throws Exception If an error occurs while executing the query.
      */
     public static String getStringVal(Connection conn, String queryString) throws Exception {
-        String value = "";
-        try {
-            ResultSet resultSet = DBUtils.executeQuery(conn, queryString);
-            if (resultSet.next()) {
-                value = resultSet.getString(1);
-            } else {
+        return QueryResultCache.get(conn, "getStringVal", queryString, () -> {
+            return query(conn, queryString, resultSet -> {
+                if (resultSet.next()) {
+                    return resultSet.getString(1);
+                }
                 log.info("ResultSet is null");
-            }
-        } catch (Exception e) {
-            log.error(e.getMessage(), e);
-            throw e;
-        }
-        return value;
+                return "";
+            });
+        });
     }
 
     /**
      * Retrieves a list of values from the result of a SQL query.
+     * Served from the {@link QueryResultCache} when it is enabled.
      *
      * @param conn        The database connection.
      * @param queryString The SQL query to execute.
@@ -261,23 +445,23 @@ public class DBUtils {
      * @throws Exception If an error occurs while executing the query.
      */
     public static List<String> getListVal(Connection conn, String queryString) throws Exception {
-        List<String> value = new ArrayList<>();
-        try {
-            ResultSet resultSet = DBUtils.executeQuery(conn, queryString);
-            while (resultSet.next()) {
-                for (int i = 1; i <= resultSet.getMetaData().getColumnCount(); i++) {
-                    value.add(resultSet.getString(i));
+        return new ArrayList<>(QueryResultCache.get(conn, "getListVal", queryString, () -> {
+            return query(conn, queryString, resultSet -> {
+                List<String> value = new ArrayList<>();
+                int columnCount = resultSet.getMetaData().getColumnCount();
+                while (resultSet.next()) {
+                    for (int i = 1; i <= columnCount; i++) {
+                        value.add(resultSet.getString(i));
+                    }
                 }
-            }
-        } catch (Exception e) {
-            log.error(e.getMessage(), e);
-            throw e;
-        }
-        return value;
+                return value;
+            });
+        }));
     }
 
     /**
      * Retrieves a status code value from the result of a SQL query.
+     * Served from the {@link QueryResultCache} when it is enabled.
      *
      * @param conn        The database connection.
      * @param queryString The SQL query to execute.
@@ -285,23 +469,20 @@ public class DBUtils {
      * @throws Exception If an error occurs while executing the query.
      */
     public static String getStatusCodeVal(Connection conn, String queryString) throws Exception {
-        String value = null;
-        try {
-            ResultSet resultSet = DBUtils.executeQuery(conn, queryString);
-            if (resultSet.next()) {
-                value = Integer.toString(resultSet.getInt(1));
-            } else {
+        return QueryResultCache.get(conn, "getStatusCodeVal", queryString, () -> {
+            return query(conn, queryString, resultSet -> {
+                if (resultSet.next()) {
+                    return Integer.toString(resultSet.getInt(1));
+                }
                 log.info("ResultSet is null");
-            }
-        } catch (Exception e) {
-            log.error(e.getMessage(), e);
-            throw e;
-        }
-        return value;
+                return null;
+            });
+        });
     }
 
     /**
      * Executes a count query and returns the result.
+     * Served from the {@link QueryResultCache} when it is enabled.
      *
      * @param conn        The database connection.
      * @param queryString The SQL query to execute.
@@ -309,21 +490,21 @@ public class DBUtils {
      * @throws Exception If an error occurs while executing the query.
      */
     public static int countQuery(Connection conn, String queryString) throws Exception {
-        int value = 0;
-        try {
-            Statement stm = conn.createStatement();
-            ResultSet resultSet = stm.executeQuery(queryString);
+        return QueryResultCache.get(conn, "countQuery", queryString, () -> count(conn, queryString));
+    }
+
+    /**
+     * Runs a count query on the database, bypassing the {@link QueryResultCache}, for validations that must
+     * see rows written outside DBUtils.
+     */
+    private static int count(Connection conn, String queryString) throws Exception {
+        return query(conn, queryString, resultSet -> {
+            int value = 0;
             while (resultSet.next()) {
                 value = Integer.parseInt(resultSet.getString(1));
             }
-        } catch (NullPointerException | SQLException e) {
-            log.error(e.getMessage(), e);
-            throw e;
-        } catch (Exception e) {
-            log.error("Generic Exception has been raised.", e);
-            throw e;
-        }
-        return value;
+            return value;
+        });
     }
 
     /**
@@ -335,9 +516,10 @@ public class DBUtils {
      */
     public static int executeNonQuery(String queryString) throws Exception {
         int result = 0;
-        try {
-            Statement stm = connection.createStatement();
+        try (Statement stm = QueryMetrics.instrument(connection.createStatement())) {
             result = stm.executeUpdate(queryString);
+            QueryResultCache.invalidateFor(queryString);
+            SchemaCache.invalidateFor(queryString);
         } catch (NullPointerException | SQLException e) {
             log.error(e.getMessage(), e);
             throw e;
@@ -349,25 +531,32 @@ public class DBUtils {
     }
 
     /**
-     * Converts a result set to a list of maps.
+     * Converts a result set to a list of maps, one mutable map per row, with values typed as in
+     * {@link ColumnarResult}. Use {@link #resultSetToColumnar(ResultSet)} for a compact read-only result.
      *
      * @param resultSet The result set to convert.
      * @return A list of maps representing the result set.
      * @throws Exception If an error occurs while processing the result set.
      */
     public static List<Map<String, Object>> resultSetToArrayList(ResultSet resultSet) throws Exception {
-        ResultSetMetaData md = resultSet.getMetaData();
-        int columns = md.getColumnCount();
-        List<Map<String, Object>> list = new ArrayList<>();
+        ColumnarResult columnar = resultSetToColumnar(resultSet);
+        List<Map<String, Object>> list = new ArrayList<>(columnar.size());
+        for (Map<String, Object> row : columnar) {
+            list.add(new HashMap<>(row));
+        }
+        return list;
+    }
 
+    /**
+     * Converts a result set to a compact column-oriented result.
+     *
+     * @param resultSet The result set to convert.
+     * @return The columnar result.
+     * @throws Exception If an error occurs while processing the result set.
+     */
+    public static ColumnarResult resultSetToColumnar(ResultSet resultSet) throws Exception {
         try {
-            while (resultSet.next()) {
-                HashMap<String, Object> row = new HashMap<>(columns);
-                for (int i = 1; i <= columns; ++i) {
-                    row.put(md.getColumnName(i), resultSet.getObject(i));
-                }
-                list.add(row);
-            }
+            return ColumnarResult.from(resultSet);
         } catch (NullPointerException | SQLException e) {
             log.error(e.getMessage(), e);
             throw e;
@@ -375,7 +564,6 @@ public class DBUtils {
             log.error("Generic Exception has been raised.", e);
             throw e;
         }
-        return list;
     }
 
     /**
@@ -402,6 +590,8 @@ public class DBUtils {
 
     /**
      * Validates that the row count between source and target tables matches.
+     * The source and target queries run concurrently, or one after the other when they share a connection.
+     * The counts always come from the database, never from the {@link QueryResultCache}.
      *
      * @param sourceConn  The source database connection.
      * @param sourceQuery The SQL query for the source table.
@@ -411,13 +601,14 @@ public class DBUtils {
      * @throws Exception If an error occurs while executing the queries.
      */
     public static boolean validateRowCount(Connection sourceConn, String sourceQuery, Connection targetConn, String targetQuery) throws Exception {
-        int sourceCount = countQuery(sourceConn, sourceQuery);
-        int targetCount = countQuery(targetConn, targetQuery);
-        return sourceCount == targetCount;
+        List<Integer> counts = ParallelQueries.runBoth(sourceConn, targetConn, () -> count(sourceConn, sourceQuery), () -> count(targetConn, targetQuery));
+        return counts.get(0).equals(counts.get(1));
     }
 
     /**
      * Validates that data between source and target tables matches.
+     * The source and target queries run concurrently and both results are walked row by row in lockstep,
+     * so only the current row of each side is held in memory.
      *
      * @param sourceConn  The source database connection.
      * @param sourceQuery The SQL query for the source table.
@@ -427,196 +618,969 @@ public class DBUtils {
      * @throws Exception If an error occurs while executing the queries.
      */
     public static boolean validateDataIntegrity(Connection sourceConn, String sourceQuery, Connection targetConn, String targetQuery) throws Exception {
-        ResultSet sourceResultSet = executeQuery(sourceConn, sourceQuery);
-        ResultSet targetResultSet = executeQuery(targetConn, targetQuery);
-
-        List<Map<String, Object>> sourceData = resultSetToArrayList(sourceResultSet);
-        List<Map<String, Object>> targetData = resultSetToArrayList(targetResultSet);
-
-        return sourceData.equals(targetData);
+        return validateDataIntegrity(sourceConn, sourceQuery, targetConn, targetQuery, ComparisonRules.defaults());
     }
 
     /**
-     * Validates that the schema (column names and types) between source and target tables matches.
+     * Validates that data between source and target tables matches, row by row in query order, with values
+     * normalized by the given rules so that equivalent types from different databases compare equal.
+     * Both results are streamed at once; if both sides use the same pooled connection, the target side reads
+     * through a second connection from the same pool, and if they use the same unpooled connection, both results
+     * are opened one after the other on non-streaming statements.
      *
      * @param sourceConn  The source database connection.
      * @param sourceQuery The SQL query for the source table.
      * @param targetConn  The target database connection.
      * @param targetQuery The SQL query for the target table.
-     * @return True if the schemas match, false otherwise.
+     * @param rules       How values are normalized before they are compared.
+     * @return True if the data matches, false otherwise.
      * @throws Exception If an error occurs while executing the queries.
      */
-    public static boolean validateSchema(Connection sourceConn, String sourceQuery, Connection targetConn, String targetQuery) throws Exception {
-        ResultSet sourceResultSet = executeQuery(sourceConn, sourceQuery);
-        ResultSet targetResultSet = executeQuery(targetConn, targetQuery);
-
-        ResultSetMetaData sourceMetaData = sourceResultSet.getMetaData();
-        ResultSetMetaData targetMetaData = targetResultSet.getMetaData();
-
-        if (sourceMetaData.getColumnCount() != targetMetaData.getColumnCount()) {
-            return false;
+    public static boolean validateDataIntegrity(Connection sourceConn, String sourceQuery, Connection targetConn, String targetQuery, ComparisonRules rules) throws Exception {
+        if (ConnectionPool.physical(sourceConn) == ConnectionPool.physical(targetConn) && ConnectionPool.poolKey(targetConn) == null) {
+            // One unpooled connection cannot stream two results at once, so both sides are opened one after the other
+            List<Cursor> cursors = ParallelQueries.runBoth(sourceConn, targetConn, () -> openCursor(sourceConn, sourceQuery),
+                    () -> openCursor(targetConn, targetQuery));
+            try (Cursor sourceCursor = cursors.get(0); Cursor targetCursor = cursors.get(1)) {
+                return rowsMatch(sourceCursor, targetCursor, rules);
+            }
         }
-
-        for (int i = 1; i <= sourceMetaData.getColumnCount(); i++) {
-            if (!sourceMetaData.getColumnName(i).equals(targetMetaData.getColumnName(i)) || sourceMetaData.getColumnType(i) != targetMetaData.getColumnType(i)) {
-                return false;
+        try (Connection second = ConnectionPool.borrowIfShared(sourceConn, targetConn)) {
+            Connection target = second == null ? targetConn : second;
+            List<Cursor> cursors = ParallelQueries.runBoth(() -> openStreamingCursor(sourceConn, sourceQuery),
+                    () -> openStreamingCursor(target, targetQuery));
+            try (Cursor sourceCursor = cursors.get(0); Cursor targetCursor = cursors.get(1)) {
+                return rowsMatch(sourceCursor, targetCursor, rules);
             }
         }
-
-        return true;
     }
 
-    /**
-     * Validates that there are no unexpected null values in critical columns.
-     *
-     * @param conn            The database connection.
-     * @param query           The SQL query to execute.
-     * @param criticalColumns The list of critical columns to check for null values.
-     * @return True if there are no unexpected null values, false otherwise.
-     * @throws Exception If an error occurs while executing the query.
-     */
-    public static boolean validateNullValues(Connection conn, String query, List<String> criticalColumns) throws Exception {
-        ResultSet resultSet = executeQuery(conn, query);
+    private static boolean rowsMatch(Cursor source, Cursor target, ComparisonRules rules) throws SQLException {
+        ResultSetMetaData sourceMd = source.getResultSet().getMetaData();
+        ResultSetMetaData targetMd = target.getResultSet().getMetaData();
+        ValueComparator comparator = new ValueComparator(sourceMd, targetMd, rules);
+        if (comparator.getColumnCount() != sourceMd.getColumnCount() || comparator.getColumnCount() != targetMd.getColumnCount()) {
+            return false;
+        }
 
-        while (resultSet.next()) {
-            for (String column : criticalColumns) {
-                if (resultSet.getObject(column) == null) {
+        ValueComparator.RowBuffer sourceRow = comparator.newBuffer();
+        ValueComparator.RowBuffer targetRow = comparator.newBuffer();
+        long row = 0;
+        while (true) {
+            boolean hasSource = source.next();
+            boolean hasTarget = target.next();
+            if (!hasSource || !hasTarget) {
+                if (hasSource != hasTarget) {
+                    log.info("Row counts differ after " + row + " rows");
+                }
+                return hasSource == hasTarget;
+            }
+            row++;
+            comparator.readSource(source.getResultSet(), sourceRow);
+            comparator.readTarget(target.getResultSet(), targetRow);
+            for (int i = 0; i < comparator.getColumnCount(); i++) {
+                if (!comparator.equal(i, sourceRow, targetRow)) {
+                    log.info("Row " + row + " differs in " + comparator.getColumnName(i) + ": "
+                            + comparator.format(sourceRow, i) + " -> " + comparator.format(targetRow, i));
                     return false;
                 }
             }
         }
-
-        return true;
     }
 
     /**
-     * Validates that data types between source and target tables match.
+     * Validates that data between source and target tables matches, matching rows by key
+     * so that the row order of either query does not matter.
      *
      * @param sourceConn  The source database connection.
      * @param sourceQuery The SQL query for the source table.
      * @param targetConn  The target database connection.
      * @param targetQuery The SQL query for the target table.
-     * @return True if the data types match, false otherwise.
+     * @param keyColumns  The columns that uniquely identify a row.
+     * @return True if the data matches, false otherwise.
      * @throws Exception If an error occurs while executing the queries.
      */
-    public static boolean validateDataTypes(Connection sourceConn, String sourceQuery, Connection targetConn, String targetQuery) throws Exception {
-        ResultSet sourceResultSet = executeQuery(sourceConn, sourceQuery);
-        ResultSet targetResultSet = executeQuery(targetConn, targetQuery);
-
-        ResultSetMetaData sourceMetaData = sourceResultSet.getMetaData();
-        ResultSetMetaData targetMetaData = targetResultSet.getMetaData();
-
-        for (int i = 1; i <= sourceMetaData.getColumnCount(); i++) {
-            if (sourceMetaData.getColumnType(i) != targetMetaData.getColumnType(i)) {
-                return false;
-            }
-        }
-
-        return true;
+    public static boolean validateDataIntegrity(Connection sourceConn, String sourceQuery, Connection targetConn, String targetQuery, List<String> keyColumns) throws Exception {
+        return reconcileData(sourceConn, sourceQuery, targetConn, targetQuery, keyColumns).isMatch();
     }
 
     /**
-     * Validates that there are no duplicate rows in the target table.
+     * Reconciles source and target data by streaming both cursors once in key order.
+     * Memory use is bounded regardless of table size.
      *
-     * @param conn       The database connection.
-     * @param query      The SQL query to execute.
-     * @param keyColumns The list of key columns to check for duplicates.
-     * @return True if there are no duplicate rows, false otherwise.
-     * @throws Exception If an error occurs while executing the query.
+     * @param sourceConn  The source database connection.
+     * @param sourceQuery The SQL query for the source table.
+     * @param targetConn  The target database connection.
+     * @param targetQuery The SQL query for the target table.
+     * @param keyColumns  The columns that uniquely identify a row.
+     * @return The missing, extra and changed rows with capped samples.
+     * @throws Exception If an error occurs while executing the queries.
      */
-    public static boolean validateNoDuplicates(Connection conn, String query, List<String> keyColumns) throws Exception {
-        ResultSet resultSet = executeQuery(conn, query);
-
-        Map<String, Integer> rowMap = new HashMap<>();
-        while (resultSet.next()) {
-            StringBuilder key = new StringBuilder();
-            for (String column : keyColumns) {
-                key.append(resultSet.getString(column)).append("|");
-            }
-            String keyStr = key.toString();
-            rowMap.put(keyStr, rowMap.getOrDefault(keyStr, 0) + 1);
-        }
-
-        for (int count : rowMap.values()) {
-            if (count > 1) {
-                return false;
-            }
+    public static ReconciliationResult reconcileData(Connection sourceConn, String sourceQuery, Connection targetConn, String targetQuery, List<String> keyColumns) throws Exception {
+        try {
+            return new StreamingReconciler(keyColumns).reconcile(sourceConn, sourceQuery, targetConn, targetQuery);
+        } catch (NullPointerException | SQLException e) {
+            log.error(e.getMessage(), e);
+            throw e;
+        } catch (Exception e) {
+            log.error("Generic Exception has been raised.", e);
+            throw e;
         }
-
-        return true;
     }
 
     /**
-     * Inserts data into a table.
+     * Reconciles source and target data that cannot be ordered by the databases, e.g. because the keys sort
+     * differently in each, by sorting both sides on local disk and merging them. Memory use is bounded by
+     * {@link FrameworkConstants#SPILL_MEMORY_BUDGET_BYTES}.
      *
-     * @param conn      The database connection.
-     * @param tableName The name of the table.
-     * @param data      A map of column names and values to insert.
-     * @return The number of affected rows.
-     * @throws Exception If an error occurs while executing the insert.
+     * @param sourceConn  The source database connection.
+     * @param sourceQuery The SQL query for the source table.
+     * @param targetConn  The target database connection.
+     * @param targetQuery The SQL query for the target table.
+     * @param keyColumns  The columns that uniquely identify a row, or an empty list to compare whole rows.
+     * @return The missing, extra and changed rows with capped samples.
+     * @throws Exception If an error occurs while executing the queries or writing the spill files.
      */
-    public static int insertData(Connection conn, String tableName, Map<String, Object> data) throws Exception {
-        StringBuilder columns = new StringBuilder();
-        StringBuilder values = new StringBuilder();
-
-        for (Map.Entry<String, Object> entry : data.entrySet()) {
-            columns.append(entry.getKey()).append(",");
-            values.append("'").append(entry.getValue()).append("',");
+    public static ReconciliationResult reconcileDataUnordered(Connection sourceConn, String sourceQuery, Connection targetConn, String targetQuery, List<String> keyColumns) throws Exception {
+        try {
+            return new ExternalSortDiff(keyColumns).diff(sourceConn, sourceQuery, targetConn, targetQuery);
+        } catch (NullPointerException | SQLException e) {
+            log.error(e.getMessage(), e);
+            throw e;
+        } catch (Exception e) {
+            log.error("Generic Exception has been raised.", e);
+            throw e;
         }
-
-        // Remove trailing commas
-        columns.setLength(columns.length() - 1);
-        values.setLength(values.length() - 1);
-
-        String query = String.format("INSERT INTO %s (%s) VALUES (%s)", tableName, columns, values);
-
-        return executeNonQuery(query);
     }
 
     /**
-     * Updates data in a table.
+     * Validates that data between source and target tables matches regardless of row order, without
+     * holding either result in memory.
      *
-     * @param conn      The database connection.
-     * @param tableName The name of the table.
-     * @param data      A map of column names and values to update.
-     * @param condition The condition for the update.
-     * @return The number of affected rows.
-     * @throws Exception If an error occurs while executing the update.
+     * @param sourceConn  The source database connection.
+     * @param sourceQuery The SQL query for the source table.
+     * @param targetConn  The target database connection.
+     * @param targetQuery The SQL query for the target table.
+     * @return True if both results contain the same rows, false otherwise.
+     * @throws Exception If an error occurs while executing the queries or writing the spill files.
      */
-    public static int updateData(Connection conn, String tableName, Map<String, Object> data, String condition) throws Exception {
-        StringBuilder setClause = new StringBuilder();
+    public static boolean validateDataIntegrityUnordered(Connection sourceConn, String sourceQuery, Connection targetConn, String targetQuery) throws Exception {
+        return reconcileDataUnordered(sourceConn, sourceQuery, targetConn, targetQuery, Collections.emptyList()).isMatch();
+    }
 
-        for (Map.Entry<String, Object> entry : data.entrySet()) {
-            setClause.append(entry.getKey()).append("='").append(entry.getValue()).append("',");
+    /**
+     * Profiles every column of a query result in a single streaming pass: null count, min/max, sum, mean,
+     * a distinct-count estimate and a histogram.
+     *
+     * @param conn  The database connection.
+     * @param query The SQL query.
+     * @return The column profiles.
+     * @throws Exception If an error occurs while executing the query.
+     */
+    public static TableProfile profileQuery(Connection conn, String query) throws Exception {
+        try {
+            return ColumnProfiler.profile(conn, query);
+        } catch (NullPointerException | SQLException e) {
+            log.error(e.getMessage(), e);
+            throw e;
         }
-
-        // Remove trailing comma
-        setClause.setLength(setClause.length() - 1);
-
-        String query = String.format("UPDATE %s SET %s WHERE %s", tableName, setClause, condition);
-
-        return executeNonQuery(query);
     }
 
     /**
-     * Deletes data from a table.
+     * Profiles a query result in parallel hash-modulo partitions and merges the partial profiles.
      *
-     * @param conn      The database connection.
-     * @param tableName The name of the table.
-     * @param condition The condition for the delete.
-     * @return The number of affected rows.
-     * @throws Exception If an error occurs while executing the delete.
+     * @param endpoint        The database endpoint.
+     * @param query           The SQL query.
+     * @param partitionColumn The integral column used to split the data.
+     * @param partitions      The number of partitions to run concurrently.
+     * @return The merged column profiles.
+     * @throws Exception If an error occurs while executing the queries.
      */
-    public static int deleteData(Connection conn, String tableName, String condition) throws Exception {
-        String query = String.format("DELETE FROM %s WHERE %s", tableName, condition);
+    public static TableProfile profileQueryParallel(DBEndpoint endpoint, String query, String partitionColumn, int partitions) throws Exception {
+        return ColumnProfiler.profile(endpoint, query, partitionColumn, partitions);
+    }
 
-        return executeNonQuery(query);
+    /**
+     * Validates that the column profiles of source and target agree within the given tolerances.
+     * Both sides are profiled concurrently, or one after the other when they share a connection.
+     *
+     * @param sourceConn  The source database connection.
+     * @param sourceQuery The SQL query for the source table.
+     * @param targetConn  The target database connection.
+     * @param targetQuery The SQL query for the target table.
+     * @param tolerance   The allowed drift, e.g. {@link ProfileTolerance#defaults()}.
+     * @return True if the profiles agree, false otherwise.
+     * @throws Exception If an error occurs while executing the queries.
+     */
+    public static boolean validateProfiles(Connection sourceConn, String sourceQuery, Connection targetConn, String targetQuery, ProfileTolerance tolerance) throws Exception {
+        List<TableProfile> profiles = ParallelQueries.runBoth(sourceConn, targetConn, () -> profileQuery(sourceConn, sourceQuery), () -> profileQuery(targetConn, targetQuery));
+        return ColumnProfiler.diff(profiles.get(0), profiles.get(1), tolerance).isEmpty();
     }
 
     /**
-     * Retrieves data from a table.
+     * Validates a deterministic sample of the source and target data. The same keys are sampled on both
+     * sides, so any difference in the sample is a real difference.
      *
-     * @param conn      The database connection.
+     * @param sourceConn     The source database connection.
+     * @param sourceQuery    The SQL query for the source table.
+     * @param targetConn     The target database connection.
+     * @param targetQuery    The SQL query for the target table.
+     * @param keyColumn      The non-null integral column that uniquely identifies a row.
+     * @param sampleFraction The fraction of keys to compare, between 0 and 1.
+     * @return True if every sampled row matches, false otherwise.
+     * @throws Exception If an error occurs while executing the queries.
+     */
+    public static boolean validateDataIntegritySample(Connection sourceConn, String sourceQuery, Connection targetConn, String targetQuery, String keyColumn, double sampleFraction) throws Exception {
+        return reconcileDataSample(sourceConn, sourceQuery, targetConn, targetQuery, keyColumn, sampleFraction).getReconciliation().isMatch();
+    }
+
+    /**
+     * Reconciles a fixed fraction of the keys, selected by hash-modulo on the key column.
+     *
+     * @param sourceConn     The source database connection.
+     * @param sourceQuery    The SQL query for the source table.
+     * @param targetConn     The target database connection.
+     * @param targetQuery    The SQL query for the target table.
+     * @param keyColumn      The non-null integral column that uniquely identifies a row.
+     * @param sampleFraction The fraction of keys to compare, between 0 and 1.
+     * @return The diff of the sampled rows and the mismatch rate with its confidence interval.
+     * @throws Exception If an error occurs while executing the queries.
+     */
+    public static SamplingResult reconcileDataSample(Connection sourceConn, String sourceQuery, Connection targetConn, String targetQuery, String keyColumn, double sampleFraction) throws Exception {
+        return reconcileSample(SamplingReconciler.withFraction(keyColumn, sampleFraction), sourceConn, sourceQuery, targetConn, targetQuery);
+    }
+
+    /**
+     * Reconciles just enough sampled keys for the confidence interval of the mismatch rate to be no wider
+     * than the error bound on either side. The source rows are counted first to size the sample.
+     *
+     * @param sourceConn  The source database connection.
+     * @param sourceQuery The SQL query for the source table.
+     * @param targetConn  The target database connection.
+     * @param targetQuery The SQL query for the target table.
+     * @param keyColumn   The non-null integral column that uniquely identifies a row.
+     * @param errorBound  The largest acceptable half-width of the confidence interval, e.g. 0.01.
+     * @return The diff of the sampled rows and the mismatch rate with its confidence interval.
+     * @throws Exception If an error occurs while executing the queries.
+     */
+    public static SamplingResult reconcileDataSampleWithinError(Connection sourceConn, String sourceQuery, Connection targetConn, String targetQuery, String keyColumn, double errorBound) throws Exception {
+        return reconcileSample(SamplingReconciler.withErrorBound(keyColumn, errorBound), sourceConn, sourceQuery, targetConn, targetQuery);
+    }
+
+    private static SamplingResult reconcileSample(SamplingReconciler reconciler, Connection sourceConn, String sourceQuery, Connection targetConn, String targetQuery) throws Exception {
+        try {
+            return reconciler.reconcile(sourceConn, sourceQuery, targetConn, targetQuery);
+        } catch (NullPointerException | SQLException e) {
+            log.error(e.getMessage(), e);
+            throw e;
+        } catch (Exception e) {
+            log.error("Generic Exception has been raised.", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Reconciles source and target data by comparing per-range checksums computed on each database
+     * server and fetching rows only for the ranges whose checksums differ.
+     *
+     * @param sourceConn  The source database connection.
+     * @param sourceQuery The SQL query for the source table.
+     * @param targetConn  The target database connection.
+     * @param targetQuery The SQL query for the target table.
+     * @param keyColumn   The non-null integral column that uniquely identifies a row.
+     * @return The missing, extra and changed rows with capped samples.
+     * @throws Exception If an error occurs while executing the queries.
+     */
+    public static ReconciliationResult reconcileDataByChecksum(Connection sourceConn, String sourceQuery, Connection targetConn, String targetQuery, String keyColumn) throws Exception {
+        try {
+            return new ChecksumReconciler(keyColumn).reconcile(sourceConn, sourceQuery, targetConn, targetQuery);
+        } catch (NullPointerException | SQLException e) {
+            log.error(e.getMessage(), e);
+            throw e;
+        } catch (Exception e) {
+            log.error("Generic Exception has been raised.", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Reconciles source and target data in parallel. Both queries are split into partitions on an
+     * integral column and each partition is reconciled on its own source and target connection.
+     *
+     * @param source          The source database endpoint.
+     * @param sourceQuery     The SQL query for the source table.
+     * @param target          The target database endpoint.
+     * @param targetQuery     The SQL query for the target table.
+     * @param keyColumns      The columns that uniquely identify a row.
+     * @param partitionColumn The integral column used to split the data.
+     * @param partitions      The number of partitions to run concurrently.
+     * @param strategy        KEY_RANGE or HASH_MODULO partitioning.
+     * @return The merged missing, extra and changed rows with capped samples.
+     * @throws Exception If an error occurs while executing the queries.
+     */
+    public static ReconciliationResult reconcileDataParallel(DBEndpoint source, String sourceQuery, DBEndpoint target, String targetQuery,
+                                                             List<String> keyColumns, String partitionColumn, int partitions, PartitionStrategy strategy) throws Exception {
+        try {
+            return new PartitionedReconciler(keyColumns, partitionColumn, partitions, strategy).reconcile(source, sourceQuery, target, targetQuery);
+        } catch (NullPointerException | SQLException e) {
+            log.error(e.getMessage(), e);
+            throw e;
+        } catch (Exception e) {
+            log.error("Generic Exception has been raised.", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Validates that the schema (column names and types) between source and target tables matches.
+     * Only the metadata is read, concurrently for both sides unless they share a connection; no rows are fetched, and the result is cached per connection.
+     *
+     * @param sourceConn  The source database connection.
+     * @param sourceQuery The SQL query for the source table.
+     * @param targetConn  The target database connection.
+     * @param targetQuery The SQL query for the target table.
+     * @return True if the schemas match, false otherwise.
+     * @throws Exception If an error occurs while executing the queries.
+     */
+    public static boolean validateSchema(Connection sourceConn, String sourceQuery, Connection targetConn, String targetQuery) throws Exception {
+        List<List<ColumnInfo>> columns = ParallelQueries.runBoth(sourceConn, targetConn,
+                () -> SchemaCache.getQueryColumns(sourceConn, sourceQuery),
+                () -> SchemaCache.getQueryColumns(targetConn, targetQuery));
+        List<ColumnInfo> sourceColumns = columns.get(0);
+        List<ColumnInfo> targetColumns = columns.get(1);
+        return schemasMatch(sourceColumns, targetColumns);
+    }
+
+    /**
+     * Validates that the schema (column names and types) between source and target tables matches,
+     * reading only the data dictionary through DatabaseMetaData.
+     *
+     * @param sourceConn   The source database connection.
+     * @param sourceSchema The source schema name, or null for any schema.
+     * @param sourceTable  The source table name.
+     * @param targetConn   The target database connection.
+     * @param targetSchema The target schema name, or null for any schema.
+     * @param targetTable  The target table name.
+     * @return True if the schemas match, false otherwise.
+     * @throws Exception If an error occurs while reading the metadata.
+     */
+    public static boolean validateTableSchema(Connection sourceConn, String sourceSchema, String sourceTable, Connection targetConn, String targetSchema, String targetTable) throws Exception {
+        List<ColumnInfo> sourceColumns = SchemaCache.getTableColumns(sourceConn, sourceSchema, sourceTable);
+        List<ColumnInfo> targetColumns = SchemaCache.getTableColumns(targetConn, targetSchema, targetTable);
+        return schemasMatch(sourceColumns, targetColumns);
+    }
+
+    private static boolean schemasMatch(List<ColumnInfo> sourceColumns, List<ColumnInfo> targetColumns) {
+        if (sourceColumns.size() != targetColumns.size()) {
+            log.info("Column count mismatch: " + sourceColumns + " vs " + targetColumns);
+            return false;
+        }
+
+        for (int i = 0; i < sourceColumns.size(); i++) {
+            ColumnInfo source = sourceColumns.get(i);
+            ColumnInfo target = targetColumns.get(i);
+            if (!source.getName().equals(target.getName()) || source.getJdbcType() != target.getJdbcType()) {
+                log.info("Column mismatch: " + source + " vs " + target);
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Validates that there are no unexpected null values in critical columns.
+     *
+     * @param conn            The database connection.
+     * @param query           The SQL query to execute.
+     * @param criticalColumns The list of critical columns to check for null values.
+     * @return True if there are no unexpected null values, false otherwise.
+     * @throws Exception If an error occurs while executing the query.
+     */
+    public static boolean validateNullValues(Connection conn, String query, List<String> criticalColumns) throws Exception {
+        try (Statement stm = createStreamingStatement(conn);
+             ResultSet resultSet = stm.executeQuery(query)) {
+            int[] indexes = new int[criticalColumns.size()];
+            for (int i = 0; i < indexes.length; i++) {
+                indexes[i] = resultSet.findColumn(criticalColumns.get(i));
+            }
+            while (resultSet.next()) {
+                for (int index : indexes) {
+                    if (resultSet.getObject(index) == null) {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Validates that data types between source and target tables match.
+     * Only the metadata is read, concurrently for both sides unless they share a connection; no rows are fetched, and the result is cached per connection.
+     *
+     * @param sourceConn  The source database connection.
+     * @param sourceQuery The SQL query for the source table.
+     * @param targetConn  The target database connection.
+     * @param targetQuery The SQL query for the target table.
+     * @return True if the data types match, false otherwise.
+     * @throws Exception If an error occurs while executing the queries.
+     */
+    public static boolean validateDataTypes(Connection sourceConn, String sourceQuery, Connection targetConn, String targetQuery) throws Exception {
+        List<List<ColumnInfo>> columns = ParallelQueries.runBoth(sourceConn, targetConn,
+                () -> SchemaCache.getQueryColumns(sourceConn, sourceQuery),
+                () -> SchemaCache.getQueryColumns(targetConn, targetQuery));
+        List<ColumnInfo> sourceColumns = columns.get(0);
+        List<ColumnInfo> targetColumns = columns.get(1);
+
+        if (targetColumns.size() < sourceColumns.size()) {
+            return false;
+        }
+        for (int i = 0; i < sourceColumns.size(); i++) {
+            if (sourceColumns.get(i).getJdbcType() != targetColumns.get(i).getJdbcType()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Validates that there are no duplicate rows in the target table.
+     * Stops at the first duplicate and keeps memory bounded regardless of the row count.
+     *
+     * @param conn       The database connection.
+     * @param query      The SQL query to execute.
+     * @param keyColumns The list of key columns to check for duplicates.
+     * @return True if there are no duplicate rows, false otherwise.
+     * @throws Exception If an error occurs while executing the query.
+     */
+    public static boolean validateNoDuplicates(Connection conn, String query, List<String> keyColumns) throws Exception {
+        return findDuplicateKeys(conn, query, keyColumns, true).isEmpty();
+    }
+
+    /**
+     * Finds duplicate keys using 64-bit fingerprints with a memory budget, spilling to disk when
+     * the budget is exceeded and verifying candidates against the exact key values.
+     *
+     * @param conn       The database connection.
+     * @param query      The SQL query to execute.
+     * @param keyColumns The list of key columns to check for duplicates.
+     * @param failFast   Stop at the first duplicate instead of scanning the whole result.
+     * @return A capped sample of duplicate keys; empty if there are none.
+     * @throws Exception If an error occurs while executing the query.
+     */
+    public static List<String> findDuplicateKeys(Connection conn, String query, List<String> keyColumns, boolean failFast) throws Exception {
+        try {
+            return new DuplicateDetector(keyColumns, failFast).findDuplicates(conn, query);
+        } catch (NullPointerException | SQLException e) {
+            log.error(e.getMessage(), e);
+            throw e;
+        } catch (Exception e) {
+            log.error("Generic Exception has been raised.", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Validates that source and target have the same number of rows beyond the stored watermark, and
+     * advances the watermark if they do. Unlike {@link #validateRowCount}, the queries select the rows
+     * to count rather than a count.
+     *
+     * @param name            The name of the validation in the watermark state file.
+     * @param watermarkColumn The timestamp or sequence column that grows with every new row. Rows must become
+     *                        visible in mark order, or -Ddb.watermarkLag must cover how late they commit; see
+     *                        {@link IncrementalValidator}.
+     * @param sourceConn      The source database connection.
+     * @param sourceQuery     The SQL query selecting the source rows.
+     * @param targetConn      The target database connection.
+     * @param targetQuery     The SQL query selecting the target rows.
+     * @return True if there are no new rows or the new row counts match, false otherwise.
+     * @throws Exception If an error occurs while executing the queries.
+     */
+    public static boolean validateRowCountIncremental(String name, String watermarkColumn, Connection sourceConn, String sourceQuery, Connection targetConn, String targetQuery) throws Exception {
+        return new IncrementalValidator(name, watermarkColumn).validate(sourceConn, sourceQuery, targetConn, targetQuery,
+                (sourceWindow, targetWindow) -> validateRowCount(sourceConn, "SELECT COUNT(*) FROM (" + sourceWindow + ") cq",
+                        targetConn, "SELECT COUNT(*) FROM (" + targetWindow + ") cq"));
+    }
+
+    /**
+     * Validates that the rows beyond the stored watermark match between source and target by key, and
+     * advances the watermark if they do.
+     *
+     * @param name            The name of the validation in the watermark state file.
+     * @param watermarkColumn The timestamp or sequence column that grows with every new row. Rows must become
+     *                        visible in mark order, or -Ddb.watermarkLag must cover how late they commit; see
+     *                        {@link IncrementalValidator}.
+     * @param sourceConn      The source database connection.
+     * @param sourceQuery     The SQL query for the source table.
+     * @param targetConn      The target database connection.
+     * @param targetQuery     The SQL query for the target table.
+     * @param keyColumns      The columns that uniquely identify a row.
+     * @return True if there are no new rows or the new rows match, false otherwise.
+     * @throws Exception If an error occurs while executing the queries.
+     */
+    public static boolean validateDataIntegrityIncremental(String name, String watermarkColumn, Connection sourceConn, String sourceQuery, Connection targetConn, String targetQuery, List<String> keyColumns) throws Exception {
+        return new IncrementalValidator(name, watermarkColumn).validate(sourceConn, sourceQuery, targetConn, targetQuery,
+                (sourceWindow, targetWindow) -> validateDataIntegrity(sourceConn, sourceWindow, targetConn, targetWindow, keyColumns));
+    }
+
+    /**
+     * Validates that the rows beyond the stored watermark have no null values in critical columns, and
+     * advances the watermark if they do not.
+     *
+     * @param name            The name of the validation in the watermark state file.
+     * @param watermarkColumn The timestamp or sequence column that grows with every new row. Rows must become
+     *                        visible in mark order, or -Ddb.watermarkLag must cover how late they commit; see
+     *                        {@link IncrementalValidator}.
+     * @param conn            The database connection.
+     * @param query           The SQL query to execute.
+     * @param criticalColumns The list of critical columns to check for null values.
+     * @return True if there are no new rows or no unexpected null values, false otherwise.
+     * @throws Exception If an error occurs while executing the query.
+     */
+    public static boolean validateNullValuesIncremental(String name, String watermarkColumn, Connection conn, String query, List<String> criticalColumns) throws Exception {
+        return new IncrementalValidator(name, watermarkColumn).validate(conn, query,
+                (window, unused) -> validateNullValues(conn, window, criticalColumns));
+    }
+
+    /**
+     * Validates that the rows beyond the stored watermark contain no duplicate keys, and advances the
+     * watermark if they do not. The keys of the new rows are checked against every row of the query, so a new
+     * row that repeats the key of an older row is detected too; the counting is done by the database.
+     *
+     * @param name            The name of the validation in the watermark state file.
+     * @param watermarkColumn The timestamp or sequence column that grows with every new row. Rows must become
+     *                        visible in mark order, or -Ddb.watermarkLag must cover how late they commit; see
+     *                        {@link IncrementalValidator}.
+     * @param conn            The database connection.
+     * @param query           The SQL query to execute.
+     * @param keyColumns      The columns that should uniquely identify a row.
+     * @return True if there are no new rows or no duplicates among them, false otherwise.
+     * @throws Exception If an error occurs while executing the query.
+     */
+    public static boolean validateNoDuplicatesIncremental(String name, String watermarkColumn, Connection conn, String query, List<String> keyColumns) throws Exception {
+        return new IncrementalValidator(name, watermarkColumn).validate(conn, query, (window, unused) -> {
+            List<String> matches = new ArrayList<>();
+            for (String key : keyColumns) {
+                // NULL keys are grouped together by the duplicate count, so they must match here too
+                matches.add("(wq." + key + " = aq." + key + " OR (wq." + key + " IS NULL AND aq." + key + " IS NULL))");
+            }
+            String inWindow = "EXISTS (SELECT 1 FROM (" + window + ") wq WHERE " + String.join(" AND ", matches) + ")";
+            return validateNoDuplicatesPushDown(conn, "(" + query + ") aq", keyColumns, inWindow, true);
+        });
+    }
+
+    /**
+     * Validates that source and target tables have the same row count, with COUNT(*) evaluated by each database.
+     *
+     * @param sourceConn         The source database connection.
+     * @param sourceTable        The source table name.
+     * @param targetConn         The target database connection.
+     * @param targetTable        The target table name.
+     * @param clientSideFallback Count the rows client-side if the aggregate query fails.
+     * @return True if the row counts match, false otherwise.
+     * @throws Exception If an error occurs while executing the queries.
+     */
+    public static boolean validateRowCountPushDown(Connection sourceConn, String sourceTable, Connection targetConn, String targetTable, boolean clientSideFallback) throws Exception {
+        long sourceCount = countRows(sourceConn, sourceTable, null, clientSideFallback);
+        long targetCount = countRows(targetConn, targetTable, null, clientSideFallback);
+        if (sourceCount != targetCount) {
+            log.info("Row count mismatch: " + sourceTable + "=" + sourceCount + ", " + targetTable + "=" + targetCount);
+        }
+        return sourceCount == targetCount;
+    }
+
+    /**
+     * Validates that critical columns contain no nulls, with the null counts evaluated by the database.
+     *
+     * @param conn               The database connection.
+     * @param table              The table name.
+     * @param criticalColumns    The list of critical columns to check for null values.
+     * @param clientSideFallback Check the rows client-side if the aggregate query fails.
+     * @return True if there are no null values, false otherwise.
+     * @throws Exception If an error occurs while executing the query.
+     */
+    public static boolean validateNullValuesPushDown(Connection conn, String table, List<String> criticalColumns, boolean clientSideFallback) throws Exception {
+        return validateNullValuesPushDown(conn, table, criticalColumns, null, clientSideFallback);
+    }
+
+    static boolean validateNullValuesPushDown(Connection conn, String table, List<String> criticalColumns, String filter, boolean clientSideFallback) throws Exception {
+        String query = SqlPushDown.nullCountSql(table, criticalColumns, filter);
+        try (Statement stm = createCursorStatement(conn);
+             ResultSet resultSet = stm.executeQuery(query)) {
+            resultSet.next();
+            boolean valid = true;
+            for (int i = 0; i < criticalColumns.size(); i++) {
+                long nulls = resultSet.getLong(i + 1);
+                if (nulls > 0) {
+                    log.info("Column " + criticalColumns.get(i) + " of " + table + " has " + nulls + " null values");
+                    valid = false;
+                }
+            }
+            return valid;
+        } catch (SQLException e) {
+            if (!clientSideFallback) {
+                log.error(e.getMessage(), e);
+                throw e;
+            }
+            log.warn("Null check push-down failed, falling back to client-side evaluation: " + e.getMessage());
+            return validateNullValues(conn, "SELECT " + String.join(", ", criticalColumns) + " FROM " + table
+                    + (filter == null ? "" : " WHERE " + filter), criticalColumns);
+        }
+    }
+
+    /**
+     * Validates that there are no duplicate keys, with GROUP BY ... HAVING COUNT(*) > 1 evaluated by the database.
+     *
+     * @param conn               The database connection.
+     * @param table              The table name.
+     * @param keyColumns         The list of key columns to check for duplicates.
+     * @param clientSideFallback Check the keys client-side if the aggregate query fails.
+     * @return True if there are no duplicate keys, false otherwise.
+     * @throws Exception If an error occurs while executing the query.
+     */
+    public static boolean validateNoDuplicatesPushDown(Connection conn, String table, List<String> keyColumns, boolean clientSideFallback) throws Exception {
+        return validateNoDuplicatesPushDown(conn, table, keyColumns, null, clientSideFallback);
+    }
+
+    static boolean validateNoDuplicatesPushDown(Connection conn, String table, List<String> keyColumns, String filter, boolean clientSideFallback) throws Exception {
+        String query = SqlPushDown.duplicateSql(DatabaseDialect.fromConnection(conn), table, keyColumns, filter, FrameworkConstants.DEFAULT_SAMPLE_LIMIT);
+        try (Statement stm = createCursorStatement(conn);
+             ResultSet resultSet = stm.executeQuery(query)) {
+            boolean valid = true;
+            while (resultSet.next()) {
+                StringBuilder key = new StringBuilder();
+                for (int i = 1; i <= keyColumns.size(); i++) {
+                    key.append(resultSet.getString(i)).append("|");
+                }
+                log.info("Duplicate key in " + table + ": " + key + " occurs " + resultSet.getLong(keyColumns.size() + 1) + " times");
+                valid = false;
+            }
+            return valid;
+        } catch (SQLException e) {
+            if (!clientSideFallback) {
+                log.error(e.getMessage(), e);
+                throw e;
+            }
+            log.warn("Duplicate check push-down failed, falling back to client-side evaluation: " + e.getMessage());
+            return validateNoDuplicates(conn, "SELECT " + String.join(", ", keyColumns) + " FROM " + table
+                    + (filter == null ? "" : " WHERE " + filter), keyColumns);
+        }
+    }
+
+    /**
+     * Counts the rows of a table with COUNT(*) evaluated by the database.
+     *
+     * @param conn               The database connection.
+     * @param table              The table name.
+     * @param filter             An optional WHERE condition, or null.
+     * @param clientSideFallback Count the rows client-side if the aggregate query fails.
+     * @return The row count.
+     * @throws Exception If an error occurs while executing the query.
+     */
+    public static long countRows(Connection conn, String table, String filter, boolean clientSideFallback) throws Exception {
+        try (Statement stm = createCursorStatement(conn);
+             ResultSet resultSet = stm.executeQuery(SqlPushDown.countSql(table, filter))) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        } catch (SQLException e) {
+            if (!clientSideFallback) {
+                log.error(e.getMessage(), e);
+                throw e;
+            }
+            log.warn("Row count push-down failed, falling back to client-side counting: " + e.getMessage());
+            long count = 0;
+            try (Statement stm = createStreamingStatement(conn);
+                 ResultSet resultSet = stm.executeQuery("SELECT 1 FROM " + table + (filter == null ? "" : " WHERE " + filter))) {
+                while (resultSet.next()) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Inserts data into a table using bind parameters.
+     *
+     * @param conn      The database connection.
+     * @param tableName The name of the table.
+     * @param data      A map of column names and values to insert.
+     * @return The number of affected rows.
+     * @throws Exception If an error occurs while executing the insert.
+     */
+    public static int insertData(Connection conn, String tableName, Map<String, Object> data) throws Exception {
+        StringBuilder columns = new StringBuilder();
+        StringBuilder placeholders = new StringBuilder();
+        List<Object> values = new ArrayList<>();
+
+        for (Map.Entry<String, Object> entry : data.entrySet()) {
+            columns.append(entry.getKey()).append(",");
+            placeholders.append("?,");
+            values.add(entry.getValue());
+        }
+
+        // Remove trailing commas
+        columns.setLength(columns.length() - 1);
+        placeholders.setLength(placeholders.length() - 1);
+
+        String query = String.format("INSERT INTO %s (%s) VALUES (%s)", tableName, columns, placeholders);
+
+        return executePrepared(conn, query, values);
+    }
+
+    /**
+     * Inserts many rows into a table using JDBC batching with the default batch size and commit interval.
+     *
+     * @param conn      The database connection.
+     * @param tableName The name of the table.
+     * @param rows      The rows to insert; every row must have the same columns as the first.
+     * @return The row count, batch count and throughput of the load.
+     * @throws Exception If an error occurs while executing the inserts.
+     */
+    public static LoadResult insertBatch(Connection conn, String tableName, List<Map<String, Object>> rows) throws Exception {
+        return insertBatch(conn, tableName, rows.iterator(), FrameworkConstants.DEFAULT_BATCH_SIZE, FrameworkConstants.DEFAULT_COMMIT_INTERVAL);
+    }
+
+    /**
+     * Inserts rows from an iterator into a table using JDBC batching. Rows are sent in chunks of
+     * batchSize per round trip and committed every commitInterval rows, so the iterator can stream
+     * arbitrarily many rows without holding them in memory.
+     *
+     * @param conn           The database connection.
+     * @param tableName      The name of the table.
+     * @param rows           The rows to insert; every row must have the same columns as the first.
+     * @param batchSize      The number of rows sent per executeBatch call.
+     * @param commitInterval The number of rows between commits.
+     * @return The row count, batch count and throughput of the load.
+     * @throws IllegalArgumentException If batchSize or commitInterval is not positive, or a row's columns differ
+     *                                  from the first row's; rows not yet committed are rolled back.
+     * @throws Exception If an error occurs while executing the inserts.
+     */
+    public static LoadResult insertBatch(Connection conn, String tableName, Iterator<Map<String, Object>> rows, int batchSize, int commitInterval) throws Exception {
+        if (batchSize <= 0 || commitInterval <= 0) {
+            throw new IllegalArgumentException("Batch size and commit interval must be positive: " + batchSize + ", " + commitInterval);
+        }
+        long start = System.currentTimeMillis();
+        if (!rows.hasNext()) {
+            return new LoadResult(tableName, 0, 0, 0);
+        }
+
+        Map<String, Object> first = rows.next();
+        List<String> columns = new ArrayList<>(first.keySet());
+        String placeholders = String.join(",", Collections.nCopies(columns.size(), "?"));
+        String query = String.format("INSERT INTO %s (%s) VALUES (%s)", tableName, String.join(",", columns), placeholders);
+
+        boolean autoCommit = conn.getAutoCommit();
+        boolean started = false;
+        long count = 0;
+        long batches = 0;
+        try (PreparedStatement ps = QueryMetrics.instrument(conn.prepareStatement(query), query)) {
+            conn.setAutoCommit(false);
+            started = true;
+            Map<String, Object> row = first;
+            List<Object> values = new ArrayList<>(columns.size());
+            while (row != null) {
+                if (row.size() != columns.size() || !row.keySet().containsAll(columns)) {
+                    throw new IllegalArgumentException("Row " + (count + 1) + " has columns " + row.keySet() + ", expected " + columns);
+                }
+                values.clear();
+                for (String column : columns) {
+                    values.add(row.get(column));
+                }
+                StatementCache.bind(ps, values);
+                ps.addBatch();
+                count++;
+                if (count % batchSize == 0) {
+                    ps.executeBatch();
+                    batches++;
+                }
+                if (count % commitInterval == 0) {
+                    conn.commit();
+                }
+                row = rows.hasNext() ? rows.next() : null;
+            }
+            if (count % batchSize != 0) {
+                ps.executeBatch();
+                batches++;
+            }
+            conn.commit();
+            QueryResultCache.invalidateTable(tableName);
+        } catch (NullPointerException | SQLException e) {
+            log.error("Batch insert into " + tableName + " failed after " + count + " rows", e);
+            abortTransaction(conn, started, autoCommit, e);
+            throw e;
+        } catch (Exception e) {
+            log.error("Generic Exception has been raised.", e);
+            abortTransaction(conn, started, autoCommit, e);
+            throw e;
+        }
+        conn.setAutoCommit(autoCommit);
+
+        LoadResult result = new LoadResult(tableName, count, batches, System.currentTimeMillis() - start);
+        log.info(result.toString());
+        return result;
+    }
+
+    /**
+     * Rolls back a failed load and restores the auto-commit mode. Does nothing if the load failed before
+     * auto-commit was switched off, since the connection then has no transaction of the load's to roll back.
+     * Errors while cleaning up are added to the original failure as suppressed exceptions instead of replacing it.
+     *
+     * @param conn       The database connection.
+     * @param started    True if auto-commit was switched off for the load.
+     * @param autoCommit The auto-commit mode to restore.
+     * @param failure    The exception that failed the load.
+     */
+    static void abortTransaction(Connection conn, boolean started, boolean autoCommit, Exception failure) {
+        if (!started) {
+            return;
+        }
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            failure.addSuppressed(e);
+        }
+        try {
+            conn.setAutoCommit(autoCommit);
+        } catch (SQLException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Loads rows into a table through the database's native bulk path: COPY on Postgres, direct-path
+     * array inserts on Oracle, and JDBC batching on other databases.
+     *
+     * @param conn      The database connection.
+     * @param tableName The name of the table.
+     * @param columns   The target columns, in the order of the row values.
+     * @param rows      The rows to load; each row holds one value per column.
+     * @return The row count, batch count and throughput of the load.
+     * @throws Exception If an error occurs while loading the rows.
+     */
+    public static LoadResult bulkLoad(Connection conn, String tableName, List<String> columns, Iterator<? extends List<?>> rows) throws Exception {
+        return BulkLoader.load(conn, tableName, columns, rows);
+    }
+
+    /**
+     * Loads CSV records from {@link CommonUtils#readCSV(String)} into a table through the native bulk path.
+     * The first record is the header naming the columns.
+     *
+     * @param conn      The database connection.
+     * @param tableName The name of the table.
+     * @param records   The header record followed by the data records.
+     * @return The row count, batch count and throughput of the load.
+     * @throws Exception If an error occurs while loading the rows.
+     */
+    public static LoadResult bulkLoad(Connection conn, String tableName, List<CSVRecord> records) throws Exception {
+        return BulkLoader.load(conn, tableName, records);
+    }
+
+    /**
+     * Streams a CSV file with a header line into a table through the native bulk path.
+     *
+     * @param conn      The database connection.
+     * @param tableName The name of the table.
+     * @param filePath  The path to the CSV file.
+     * @return The row count, batch count and throughput of the load.
+     * @throws Exception If an error occurs while loading the file.
+     */
+    public static LoadResult bulkLoadCsv(Connection conn, String tableName, String filePath) throws Exception {
+        return BulkLoader.loadCsv(conn, tableName, filePath);
+    }
+
+    /**
+     * Updates data in a table using bind parameters for the new values.
+     *
+     * @param conn      The database connection.
+     * @param tableName The name of the table.
+     * @param data      A map of column names and values to update.
+     * @param condition The condition for the update.
+     * @return The number of affected rows.
+     * @throws Exception If an error occurs while executing the update.
+     */
+    public static int updateData(Connection conn, String tableName, Map<String, Object> data, String condition) throws Exception {
+        StringBuilder setClause = new StringBuilder();
+        List<Object> values = new ArrayList<>();
+
+        for (Map.Entry<String, Object> entry : data.entrySet()) {
+            setClause.append(entry.getKey()).append("=?,");
+            values.add(entry.getValue());
+        }
+
+        // Remove trailing comma
+        setClause.setLength(setClause.length() - 1);
+
+        String query = String.format("UPDATE %s SET %s WHERE %s", tableName, setClause, condition);
+
+        return executePrepared(conn, query, values);
+    }
+
+    /**
+     * Updates data in a table, binding both the new values and the key values of the WHERE clause.
+     *
+     * @param conn      The database connection.
+     * @param tableName The name of the table.
+     * @param data      A map of column names and values to update.
+     * @param keys      A map of column names and values that identify the rows to update.
+     * @return The number of affected rows.
+     * @throws Exception If an error occurs while executing the update.
+     */
+    public static int updateData(Connection conn, String tableName, Map<String, Object> data, Map<String, Object> keys) throws Exception {
+        StringBuilder setClause = new StringBuilder();
+        List<Object> values = new ArrayList<>();
+
+        for (Map.Entry<String, Object> entry : data.entrySet()) {
+            setClause.append(entry.getKey()).append("=?,");
+            values.add(entry.getValue());
+        }
+
+        // Remove trailing comma
+        setClause.setLength(setClause.length() - 1);
+
+        String query = String.format("UPDATE %s SET %s WHERE %s", tableName, setClause, whereClause(keys, values));
+
+        return executePrepared(conn, query, values);
+    }
+
+    /**
+     * Deletes data from a table.
+     *
+     * @param conn      The database connection.
+     * @param tableName The name of the table.
+     * @param condition The condition for the delete.
+     * @return The number of affected rows.
+     * @throws Exception If an error occurs while executing the delete.
+     */
+    public static int deleteData(Connection conn, String tableName, String condition) throws Exception {
+        String query = String.format("DELETE FROM %s WHERE %s", tableName, condition);
+
+        return executePrepared(conn, query, new ArrayList<>());
+    }
+
+    /**
+     * Deletes data from a table, binding the key values of the WHERE clause.
+     *
+     * @param conn      The database connection.
+     * @param tableName The name of the table.
+     * @param keys      A map of column names and values that identify the rows to delete.
+     * @return The number of affected rows.
+     * @throws Exception If an error occurs while executing the delete.
+     */
+    public static int deleteData(Connection conn, String tableName, Map<String, Object> keys) throws Exception {
+        List<Object> values = new ArrayList<>();
+        String query = String.format("DELETE FROM %s WHERE %s", tableName, whereClause(keys, values));
+
+        return executePrepared(conn, query, values);
+    }
+
+    /**
+     * Retrieves data from a table.
+     *
+     * @param conn      The database connection.
      * @param tableName The name of the table.
      * @param columns   The columns to retrieve.
      * @param condition The condition for the retrieval.
@@ -624,19 +1588,95 @@ public class DBUtils {
      * @throws Exception If an error occurs while executing the retrieval.
      */
     public static List<Map<String, Object>> getData(Connection conn, String tableName, List<String> columns, String condition) throws Exception {
-        StringBuilder columnList = new StringBuilder();
+        String query = String.format("SELECT %s FROM %s WHERE %s", String.join(",", columns), tableName, condition);
 
-        for (String column : columns) {
-            columnList.append(column).append(",");
-        }
+        return queryPrepared(conn, query, new ArrayList<>());
+    }
 
-        // Remove trailing comma
-        columnList.setLength(columnList.length() - 1);
+    /**
+     * Retrieves data from a table, binding the key values of the WHERE clause.
+     *
+     * @param conn      The database connection.
+     * @param tableName The name of the table.
+     * @param columns   The columns to retrieve.
+     * @param keys      A map of column names and values that identify the rows to retrieve.
+     * @return A list of maps representing the rows retrieved.
+     * @throws Exception If an error occurs while executing the retrieval.
+     */
+    public static List<Map<String, Object>> getData(Connection conn, String tableName, List<String> columns, Map<String, Object> keys) throws Exception {
+        List<Object> values = new ArrayList<>();
+        String query = String.format("SELECT %s FROM %s WHERE %s", String.join(",", columns), tableName, whereClause(keys, values));
 
-        String query = String.format("SELECT %s FROM %s WHERE %s", columnList, tableName, condition);
+        return queryPrepared(conn, query, values);
+    }
 
-        ResultSet resultSet = executeQuery(conn, query);
+    /**
+     * Builds an AND-ed "column = ?" clause and appends the key values to the bind list.
+     */
+    private static String whereClause(Map<String, Object> keys, List<Object> values) {
+        StringBuilder where = new StringBuilder();
+        for (Map.Entry<String, Object> entry : keys.entrySet()) {
+            if (where.length() > 0) {
+                where.append(" AND ");
+            }
+            if (entry.getValue() == null) {
+                where.append(entry.getKey()).append(" IS NULL");
+            } else {
+                where.append(entry.getKey()).append("=?");
+                values.add(entry.getValue());
+            }
+        }
+        return where.toString();
+    }
+
+    /**
+     * Executes a DML statement through the per-connection PreparedStatement cache.
+     *
+     * @param conn   The database connection.
+     * @param query  The parameterized SQL statement.
+     * @param values The values to bind, in placeholder order.
+     * @return The number of affected rows.
+     * @throws Exception If an error occurs while executing the statement.
+     */
+    public static int executePrepared(Connection conn, String query, List<Object> values) throws Exception {
+        try {
+            PreparedStatement ps = StatementCache.prepare(conn, query);
+            StatementCache.bind(ps, values);
+            int result = ps.executeUpdate();
+            QueryResultCache.invalidateFor(query);
+            SchemaCache.invalidateFor(query);
+            return result;
+        } catch (NullPointerException | SQLException e) {
+            log.error(e.getMessage(), e);
+            throw e;
+        } catch (Exception e) {
+            log.error("Generic Exception has been raised.", e);
+            throw e;
+        }
+    }
 
-        return resultSetToArrayList(resultSet);
+    /**
+     * Executes a query through the per-connection PreparedStatement cache.
+     *
+     * @param conn   The database connection.
+     * @param query  The parameterized SQL query.
+     * @param values The values to bind, in placeholder order.
+     * @return A list of maps representing the rows retrieved.
+     * @throws Exception If an error occurs while executing the query.
+     */
+    public static List<Map<String, Object>> queryPrepared(Connection conn, String query, List<Object> values) throws Exception {
+        try {
+            PreparedStatement ps = StatementCache.prepare(conn, query);
+            StatementCache.bind(ps, values);
+            try (ResultSet resultSet = ps.executeQuery()) {
+                return resultSetToArrayList(resultSet);
+            }
+        } catch (NullPointerException | SQLException e) {
+            log.error(e.getMessage(), e);
+            throw e;
+        } catch (Exception e) {
+            log.error("Generic Exception has been raised.", e);
+            throw e;
+        }
     }
 }
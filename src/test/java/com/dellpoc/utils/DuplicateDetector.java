@@ -0,0 +1,229 @@
+package com.dellpoc.utils;
+
+import com.dellpoc.constants.FrameworkConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds duplicate keys in a query result with bounded memory.
+ * Key columns are hashed into 64-bit fingerprints held in a primitive set. If the set outgrows the
+ * memory budget, fingerprints are spilled to disk partitioned by their high bits and each partition
+ * is checked separately. Repeated fingerprints are then verified against the exact key values in a
+ * second pass that only keeps the candidate keys, so hash collisions never cause false failures.
+ */
+public class DuplicateDetector {
+
+    private static final Logger log = LoggerFactory.getLogger(DuplicateDetector.class);
+    private static final int SPILL_PARTITION_BITS = 6;
+
+    private final List<String> keyColumns;
+    private final boolean failFast;
+    private final long memoryBudgetBytes;
+
+    /**
+     * @param keyColumns        The columns that together must be unique.
+     * @param failFast          Stop at the first duplicate instead of scanning the whole result.
+     * @param memoryBudgetBytes The heap budget for fingerprints before spilling to disk.
+     */
+    public DuplicateDetector(List<String> keyColumns, boolean failFast, long memoryBudgetBytes) {
+        this.keyColumns = keyColumns;
+        this.failFast = failFast;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+    }
+
+    public DuplicateDetector(List<String> keyColumns, boolean failFast) {
+        this(keyColumns, failFast, FrameworkConstants.DUPLICATE_CHECK_MEMORY_BYTES);
+    }
+
+    /**
+     * Scans the query result for duplicate keys.
+     *
+     * @param conn  The database connection.
+     * @param query The SQL query to execute.
+     * @return Up to DEFAULT_SAMPLE_LIMIT duplicate keys (only the first one in fail-fast mode); empty if the keys are unique.
+     * @throws SQLException If a database access error occurs.
+     * @throws IOException  If the spill files cannot be written or read.
+     */
+    public List<String> findDuplicates(Connection conn, String query) throws SQLException, IOException {
+        LongHashSet candidates = findCandidateFingerprints(conn, query);
+        if (candidates.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<String> duplicates = verify(conn, query, candidates);
+        if (duplicates.isEmpty() && failFast) {
+            // The scan stopped on a fingerprint collision, so the rest of the result was never checked
+            log.info("Fingerprint collision without a real duplicate, rescanning the full result");
+            return new DuplicateDetector(keyColumns, false, memoryBudgetBytes).findDuplicates(conn, query);
+        }
+        log.info("Found duplicate keys for {}: {}", keyColumns, duplicates);
+        return duplicates;
+    }
+
+    private LongHashSet findCandidateFingerprints(Connection conn, String query) throws SQLException, IOException {
+        long maxEntries = Math.max(1024, memoryBudgetBytes / LongHashSet.bytesFor(1));
+        LongHashSet seen = new LongHashSet((int) Math.min(maxEntries, 1 << 16));
+        LongHashSet candidates = new LongHashSet(16);
+        SpillFiles spill = null;
+        long rows = 0;
+
+        try (Statement stm = DBUtils.createStreamingStatement(conn);
+             ResultSet resultSet = stm.executeQuery(query)) {
+            int[] keyIndexes = keyIndexes(resultSet);
+            while (resultSet.next()) {
+                rows++;
+                long fingerprint = fingerprint(resultSet, keyIndexes);
+                if (spill != null) {
+                    spill.write(fingerprint);
+                } else if (!seen.add(fingerprint)) {
+                    candidates.add(fingerprint);
+                    if (failFast) {
+                        break;
+                    }
+                } else if (seen.size() > maxEntries) {
+                    log.info("Duplicate check exceeded its memory budget after {} rows, spilling fingerprints to disk", rows);
+                    spill = new SpillFiles();
+                    for (long value : seen.toArray()) {
+                        spill.write(value);
+                    }
+                    seen = null;
+                }
+            }
+
+            if (spill != null && !(failFast && !candidates.isEmpty())) {
+                spill.findRepeated(candidates, failFast);
+            }
+        } finally {
+            if (spill != null) {
+                spill.delete();
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Re-reads the result and counts exact keys, but only for rows whose fingerprint is a candidate.
+     */
+    private List<String> verify(Connection conn, String query, LongHashSet candidates) throws SQLException {
+        List<String> duplicates = new ArrayList<>();
+        Map<String, Integer> counts = new HashMap<>();
+
+        try (Statement stm = DBUtils.createStreamingStatement(conn);
+             ResultSet resultSet = stm.executeQuery(query)) {
+            int[] keyIndexes = keyIndexes(resultSet);
+            while (resultSet.next()) {
+                if (!candidates.contains(fingerprint(resultSet, keyIndexes))) {
+                    continue;
+                }
+                StringBuilder key = new StringBuilder();
+                for (int k = 0; k < keyIndexes.length; k++) {
+                    if (k > 0) {
+                        key.append(", ");
+                    }
+                    key.append(keyColumns.get(k)).append('=').append(resultSet.getString(keyIndexes[k]));
+                }
+                String keyStr = key.toString();
+                if (counts.merge(keyStr, 1, Integer::sum) == 2) {
+                    if (duplicates.size() < FrameworkConstants.DEFAULT_SAMPLE_LIMIT) {
+                        duplicates.add(keyStr);
+                    }
+                    if (failFast) {
+                        break;
+                    }
+                }
+            }
+        }
+        return duplicates;
+    }
+
+    private int[] keyIndexes(ResultSet resultSet) throws SQLException {
+        int[] indexes = new int[keyColumns.size()];
+        for (int k = 0; k < indexes.length; k++) {
+            indexes[k] = resultSet.findColumn(keyColumns.get(k));
+        }
+        return indexes;
+    }
+
+    private static long fingerprint(ResultSet resultSet, int[] keyIndexes) throws SQLException {
+        long hash = HashUtils.start();
+        for (int index : keyIndexes) {
+            hash = HashUtils.add(hash, resultSet.getString(index));
+        }
+        return HashUtils.finish(hash);
+    }
+
+    /**
+     * Fingerprints written to one temp file per partition, chosen by the top bits of the fingerprint,
+     * so equal fingerprints always land in the same partition.
+     */
+    private class SpillFiles {
+        private final Path[] paths = new Path[1 << SPILL_PARTITION_BITS];
+        private final DataOutputStream[] outputs = new DataOutputStream[paths.length];
+
+        SpillFiles() throws IOException {
+            for (int p = 0; p < paths.length; p++) {
+                paths[p] = Files.createTempFile("dup-check-" + p + "-", ".bin");
+                outputs[p] = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(paths[p]), 1 << 16));
+            }
+        }
+
+        void write(long fingerprint) throws IOException {
+            outputs[(int) (fingerprint >>> (64 - SPILL_PARTITION_BITS))].writeLong(fingerprint);
+        }
+
+        void findRepeated(LongHashSet candidates, boolean stopAtFirst) throws IOException {
+            for (DataOutputStream output : outputs) {
+                output.close();
+            }
+            for (Path path : paths) {
+                long count = Files.size(path) / Long.BYTES;
+                LongHashSet seen = new LongHashSet((int) Math.min(count, Integer.MAX_VALUE / 4));
+                try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+                    for (long i = 0; i < count; i++) {
+                        long fingerprint = input.readLong();
+                        if (!seen.add(fingerprint)) {
+                            candidates.add(fingerprint);
+                            if (stopAtFirst) {
+                                return;
+                            }
+                        }
+                    }
+                } catch (EOFException e) {
+                    throw new IOException("Spill file " + path + " is truncated", e);
+                }
+            }
+        }
+
+        void delete() {
+            for (int p = 0; p < paths.length; p++) {
+                try {
+                    if (outputs[p] != null) {
+                        outputs[p].close();
+                    }
+                    if (paths[p] != null) {
+                        Files.deleteIfExists(paths[p]);
+                    }
+                } catch (IOException e) {
+                    log.warn("Could not delete spill file {}: {}", paths[p], e.getMessage());
+                }
+            }
+        }
+    }
+}
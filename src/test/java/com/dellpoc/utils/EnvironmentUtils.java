@@ -1,21 +1,34 @@
 package com.dellpoc.utils;
 
+import com.dellpoc.pojo.DBEndpoint;
+
+import java.util.Map;
 import java.util.Properties;
+import java.util.TreeMap;
 
 public class EnvironmentUtils {
 
+    private static final String DEFAULT_DATABASE = "default";
+
     private static Properties properties;
 
     static {
         try {
-            String env = System.getProperty("env", "dev");
-            String filePath = String.format("src/test/resources/%s.properties", env);
-            properties = ConfigUtils.loadEncryptedProperties(filePath);
+            properties = ConfigUtils.loadEncryptedProperties(getPropertiesPath());
         } catch (Exception e) {
             throw new RuntimeException("Failed to load environment properties", e);
         }
     }
 
+    /**
+     * Retrieves the path of the properties file for the environment selected with -Denv (default dev).
+     * @return The path of the properties file.
+     */
+    public static String getPropertiesPath() {
+        String env = System.getProperty("env", "dev");
+        return String.format("src/test/resources/%s.properties", env);
+    }
+
     /**
      * Retrieves the value of a property.
      * @param key The name of the property.
@@ -24,4 +37,23 @@ public class EnvironmentUtils {
     public static String getProperty(String key) {
         return properties.getProperty(key);
     }
+
+    /**
+     * Retrieves every configured database, from db.&lt;name&gt;.url, db.&lt;name&gt;.username and db.&lt;name&gt;.password.
+     * db.url with db.username and db.password is returned under the name "default".
+     * @return The database endpoints by name, in name order.
+     */
+    public static Map<String, DBEndpoint> getDatabaseEndpoints() {
+        Map<String, DBEndpoint> endpoints = new TreeMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (!key.startsWith("db.") || !key.endsWith(".url")) {
+                continue;
+            }
+            String prefix = key.substring(0, key.length() - ".url".length());
+            String name = prefix.equals("db") ? DEFAULT_DATABASE : prefix.substring("db.".length());
+            endpoints.put(name, new DBEndpoint(properties.getProperty(key),
+                    properties.getProperty(prefix + ".username"), properties.getProperty(prefix + ".password")));
+        }
+        return endpoints;
+    }
 }
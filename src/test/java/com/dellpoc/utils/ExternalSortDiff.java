@@ -0,0 +1,640 @@
+package com.dellpoc.utils;
+
+import com.dellpoc.constants.FrameworkConstants;
+import com.dellpoc.pojo.ComparisonRules;
+import com.dellpoc.pojo.ReconciliationResult;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+
+/**
+ * Diffs two row sets that cannot be ordered by the database, without holding either in memory.
+ * Each side is normalized and serialized to bytes, sorted in memory up to a fixed budget and spilled to
+ * sorted run files in the temp directory (-Ddb.spillDir), which are then read back through buffered streams
+ * and merged k ways into one sorted stream. The two streams are walked once in lockstep like
+ * {@link StreamingReconciler}. The order is that of the serialized bytes rather than of the values, which
+ * is all a merge needs and is the same on both sides because the values are normalized first.
+ * <p>
+ * With key columns, rows are matched by key and reported as missing, extra or changed. Without key
+ * columns, whole rows are compared as a multiset and differences are reported as missing or extra.
+ */
+public class ExternalSortDiff {
+
+    private static final Logger log = LoggerFactory.getLogger(ExternalSortDiff.class);
+    private static final int IO_BUFFER_BYTES = 64 * 1024;
+    private static final int RECORD_OVERHEAD_BYTES = 32;
+
+    private final List<String> keyColumns;
+    private final long memoryBudget;
+    private final int sampleLimit;
+    private final ComparisonRules rules;
+
+    /**
+     * Supplies the rows of one side as canonical text values, in column order.
+     */
+    public interface RowSource {
+        /**
+         * @return The next row, or null when there are no more rows.
+         * @throws Exception If the row cannot be read.
+         */
+        String[] next() throws Exception;
+    }
+
+    /**
+     * @param keyColumns   The columns that identify a row, or an empty list to compare whole rows.
+     * @param memoryBudget The bytes of serialized rows held in memory across both sides before spilling.
+     * @param sampleLimit  The maximum number of sample rows kept per difference category.
+     * @param rules        How values are normalized before they are compared.
+     */
+    public ExternalSortDiff(List<String> keyColumns, long memoryBudget, int sampleLimit, ComparisonRules rules) {
+        if (memoryBudget / 2 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Memory budget must be below 4 GB: " + memoryBudget);
+        }
+        this.keyColumns = keyColumns;
+        this.memoryBudget = memoryBudget;
+        this.sampleLimit = sampleLimit;
+        this.rules = rules;
+    }
+
+    public ExternalSortDiff(List<String> keyColumns) {
+        this(keyColumns, FrameworkConstants.SPILL_MEMORY_BUDGET_BYTES, FrameworkConstants.DEFAULT_SAMPLE_LIMIT, ComparisonRules.defaults());
+    }
+
+    /**
+     * Streams both queries and diffs their results. The two sides are read and sorted concurrently.
+     *
+     * @param sourceConn  The source database connection.
+     * @param sourceQuery The SQL query for the source table.
+     * @param targetConn  The target database connection.
+     * @param targetQuery The SQL query for the target table.
+     * @return The structured diff between source and target.
+     * @throws Exception If a query fails or a spill file cannot be written.
+     */
+    public ReconciliationResult diff(Connection sourceConn, String sourceQuery, Connection targetConn, String targetQuery) throws Exception {
+        try (Connection second = ConnectionPool.borrowIfShared(sourceConn, targetConn);
+             Statement sourceStm = DBUtils.createStreamingStatement(sourceConn);
+             Statement targetStm = DBUtils.createStreamingStatement(second == null ? targetConn : second);
+             ResultSet source = sourceStm.executeQuery(sourceQuery);
+             ResultSet target = targetStm.executeQuery(targetQuery)) {
+            return diff(source, target);
+        }
+    }
+
+    /**
+     * Diffs two result sets, pairing their columns by name. Result sets from the same connection are read one
+     * after the other instead of concurrently.
+     *
+     * @param source The source result set.
+     * @param target The target result set.
+     * @return The structured diff between source and target.
+     * @throws Exception If a row cannot be read or a spill file cannot be written.
+     */
+    public ReconciliationResult diff(ResultSet source, ResultSet target) throws Exception {
+        ValueComparator comparator = new ValueComparator(source.getMetaData(), target.getMetaData(), rules);
+        String[] columns = new String[comparator.getColumnCount()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = comparator.getColumnName(i);
+        }
+        return diff(columns, rows(comparator, source, true), rows(comparator, target, false), connectionOf(source), connectionOf(target));
+    }
+
+    /**
+     * Diffs two CSV files whose first record is the header. Columns are paired by position.
+     *
+     * @param source The source file.
+     * @param target The target file.
+     * @return The structured diff between source and target.
+     * @throws Exception If a file cannot be read or a spill file cannot be written.
+     */
+    public ReconciliationResult diffCsv(Path source, Path target) throws Exception {
+        try (Reader sourceReader = Files.newBufferedReader(source);
+             Reader targetReader = Files.newBufferedReader(target);
+             CSVParser sourceParser = new CSVParser(sourceReader, CSVFormat.DEFAULT);
+             CSVParser targetParser = new CSVParser(targetReader, CSVFormat.DEFAULT)) {
+            Iterator<CSVRecord> sourceRecords = sourceParser.iterator();
+            Iterator<CSVRecord> targetRecords = targetParser.iterator();
+            if (!sourceRecords.hasNext()) {
+                throw new IllegalArgumentException("No header record in " + source);
+            }
+            CSVRecord header = sourceRecords.next();
+            if (targetRecords.hasNext()) {
+                targetRecords.next();
+            }
+            String[] columns = new String[header.size()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = header.get(i);
+            }
+            return diff(columns, csvRows(sourceRecords, columns.length), csvRows(targetRecords, columns.length));
+        }
+    }
+
+    /**
+     * Diffs two text files line by line, ignoring line order but not duplicates.
+     *
+     * @param source The source file.
+     * @param target The target file.
+     * @return The structured diff between source and target.
+     * @throws Exception If a file cannot be read or a spill file cannot be written.
+     */
+    public ReconciliationResult diffLines(Path source, Path target) throws Exception {
+        try (BufferedReader sourceReader = Files.newBufferedReader(source);
+             BufferedReader targetReader = Files.newBufferedReader(target)) {
+            return diff(new String[]{"line"}, lines(sourceReader), lines(targetReader));
+        }
+    }
+
+    /**
+     * Diffs two row sources with the same column layout.
+     *
+     * @param columns The column names.
+     * @param source  The source rows.
+     * @param target  The target rows.
+     * @return The structured diff between source and target.
+     * @throws Exception If a row cannot be read or a spill file cannot be written.
+     */
+    public ReconciliationResult diff(String[] columns, RowSource source, RowSource target) throws Exception {
+        return diff(columns, source, target, null, null);
+    }
+
+    private ReconciliationResult diff(String[] columns, RowSource source, RowSource target, Connection sourceConn, Connection targetConn) throws Exception {
+        int[] keyIndexes = keyIndexes(columns);
+        Callable<SortedRows> sortSource = () -> sort(source, keyIndexes, columns.length);
+        Callable<SortedRows> sortTarget = () -> sort(target, keyIndexes, columns.length);
+        List<SortedRows> sides = sourceConn == null || targetConn == null ? ParallelQueries.runBoth(sortSource, sortTarget)
+                : ParallelQueries.runBoth(sourceConn, targetConn, sortSource, sortTarget);
+        try (SortedRows sourceRows = sides.get(0); SortedRows targetRows = sides.get(1)) {
+            ReconciliationResult result = merge(columns, keyIndexes, sourceRows.open(), targetRows.open());
+            log.info("External sort diff finished ({} + {} spilled runs): {}", sourceRows.runCount(), targetRows.runCount(), result);
+            return result;
+        }
+    }
+
+    private static Connection connectionOf(ResultSet resultSet) throws SQLException {
+        Statement stm = resultSet.getStatement();
+        return stm == null ? null : stm.getConnection();
+    }
+
+    private ReconciliationResult merge(String[] columns, int[] keyIndexes, RecordIterator src, RecordIterator tgt) throws IOException {
+        ReconciliationResult result = new ReconciliationResult(sampleLimit);
+        byte[] s = src.next();
+        byte[] t = tgt.next();
+        while (s != null || t != null) {
+            int cmp = s == null ? 1 : t == null ? -1 : compareKeys(s, t);
+            if (cmp < 0) {
+                result.addSourceRow();
+                result.addMissing(describe(columns, keyIndexes, s));
+                s = src.next();
+            } else if (cmp > 0) {
+                result.addTargetRow();
+                result.addExtra(describe(columns, keyIndexes, t));
+                t = tgt.next();
+            } else {
+                result.addSourceRow();
+                result.addTargetRow();
+                if (Arrays.equals(s, t)) {
+                    result.addMatched();
+                } else {
+                    result.addChanged(describeChange(columns, keyIndexes, s, t));
+                }
+                s = src.next();
+                t = tgt.next();
+            }
+        }
+        return result;
+    }
+
+    private int[] keyIndexes(String[] columns) {
+        if (keyColumns.isEmpty()) {
+            int[] all = new int[columns.length];
+            for (int i = 0; i < all.length; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+        int[] indexes = new int[keyColumns.size()];
+        for (int k = 0; k < indexes.length; k++) {
+            indexes[k] = -1;
+            for (int i = 0; i < columns.length; i++) {
+                if (columns[i].equalsIgnoreCase(keyColumns.get(k))) {
+                    indexes[k] = i;
+                }
+            }
+            if (indexes[k] < 0) {
+                throw new IllegalArgumentException("Key column " + keyColumns.get(k) + " not found in " + Arrays.toString(columns));
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * Reads one side, spilling a sorted run whenever the serialized rows reach half the memory budget.
+     */
+    private SortedRows sort(RowSource rows, int[] keyIndexes, int columnCount) throws Exception {
+        long budget = memoryBudget / 2;
+        SortedRows sorted = new SortedRows();
+        try {
+            List<byte[]> buffer = new ArrayList<>();
+            long used = 0;
+            boolean[] isKey = new boolean[columnCount];
+            for (int k : keyIndexes) {
+                isKey[k] = true;
+            }
+            String[] row;
+            while ((row = rows.next()) != null) {
+                byte[] record = encode(row, keyIndexes, isKey);
+                if (used + record.length + RECORD_OVERHEAD_BYTES > budget && !buffer.isEmpty()) {
+                    sorted.spill(buffer);
+                    buffer.clear();
+                    used = 0;
+                }
+                buffer.add(record);
+                used += record.length + RECORD_OVERHEAD_BYTES;
+            }
+            if (sorted.runs.isEmpty()) {
+                buffer.sort(RECORD_ORDER);
+                sorted.inMemory = buffer;
+            } else if (!buffer.isEmpty()) {
+                sorted.spill(buffer);
+            }
+            sorted.compact();
+            return sorted;
+        } catch (Exception | Error e) {
+            sorted.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Serializes a row as [key length][key fields][other fields], each field as [length or -1 for NULL][UTF-8].
+     */
+    private static byte[] encode(String[] row, int[] keyIndexes, boolean[] isKey) {
+        byte[][] fields = new byte[row.length][];
+        int keyLength = 0;
+        int length = 4;
+        for (int i = 0; i < row.length; i++) {
+            fields[i] = row[i] == null ? null : row[i].getBytes(StandardCharsets.UTF_8);
+            int size = 4 + (fields[i] == null ? 0 : fields[i].length);
+            length += size;
+            if (isKey[i]) {
+                keyLength += size;
+            }
+        }
+        byte[] record = new byte[length];
+        int pos = putInt(record, 0, keyLength);
+        for (int k : keyIndexes) {
+            pos = putField(record, pos, fields[k]);
+        }
+        for (int i = 0; i < row.length; i++) {
+            if (!isKey[i]) {
+                pos = putField(record, pos, fields[i]);
+            }
+        }
+        return record;
+    }
+
+    private static int putField(byte[] record, int pos, byte[] field) {
+        pos = putInt(record, pos, field == null ? -1 : field.length);
+        if (field != null) {
+            System.arraycopy(field, 0, record, pos, field.length);
+            pos += field.length;
+        }
+        return pos;
+    }
+
+    private static int putInt(byte[] record, int pos, int value) {
+        record[pos] = (byte) (value >>> 24);
+        record[pos + 1] = (byte) (value >>> 16);
+        record[pos + 2] = (byte) (value >>> 8);
+        record[pos + 3] = (byte) value;
+        return pos + 4;
+    }
+
+    private static int getInt(byte[] record, int pos) {
+        return (record[pos] & 0xFF) << 24 | (record[pos + 1] & 0xFF) << 16 | (record[pos + 2] & 0xFF) << 8 | (record[pos + 3] & 0xFF);
+    }
+
+    private static int compareKeys(byte[] a, byte[] b) {
+        return Arrays.compareUnsigned(a, 4, 4 + getInt(a, 0), b, 4, 4 + getInt(b, 0));
+    }
+
+    private static final Comparator<byte[]> RECORD_ORDER = (a, b) -> {
+        int cmp = compareKeys(a, b);
+        return cmp != 0 ? cmp : Arrays.compareUnsigned(a, b);
+    };
+
+    /**
+     * Decodes a record back into column order.
+     */
+    private static String[] decode(byte[] record, int[] keyIndexes, int columnCount) {
+        String[] row = new String[columnCount];
+        boolean[] isKey = new boolean[columnCount];
+        int pos = 4;
+        for (int k : keyIndexes) {
+            isKey[k] = true;
+            int length = getInt(record, pos);
+            pos += 4;
+            if (length >= 0) {
+                row[k] = new String(record, pos, length, StandardCharsets.UTF_8);
+                pos += length;
+            }
+        }
+        for (int i = 0; i < columnCount; i++) {
+            if (isKey[i]) {
+                continue;
+            }
+            int length = getInt(record, pos);
+            pos += 4;
+            if (length >= 0) {
+                row[i] = new String(record, pos, length, StandardCharsets.UTF_8);
+                pos += length;
+            }
+        }
+        return row;
+    }
+
+    private static String describe(String[] columns, int[] keyIndexes, byte[] record) {
+        String[] row = decode(record, keyIndexes, columns.length);
+        StringBuilder sb = new StringBuilder("key=").append(key(row, keyIndexes)).append(" row={");
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(columns[i]).append('=').append(row[i]);
+        }
+        return sb.append('}').toString();
+    }
+
+    private static String describeChange(String[] columns, int[] keyIndexes, byte[] source, byte[] target) {
+        String[] s = decode(source, keyIndexes, columns.length);
+        String[] t = decode(target, keyIndexes, columns.length);
+        StringBuilder sb = new StringBuilder("key=").append(key(s, keyIndexes));
+        for (int i = 0; i < columns.length; i++) {
+            if (!Objects.equals(s[i], t[i])) {
+                sb.append(' ').append(columns[i]).append(": ").append(s[i]).append(" -> ").append(t[i]);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String key(String[] row, int[] keyIndexes) {
+        String[] key = new String[keyIndexes.length];
+        for (int k = 0; k < key.length; k++) {
+            key[k] = row[keyIndexes[k]];
+        }
+        return Arrays.toString(key);
+    }
+
+    private static RowSource rows(ValueComparator comparator, ResultSet resultSet, boolean isSource) {
+        ValueComparator.RowBuffer buffer = comparator.newBuffer();
+        return () -> {
+            if (!resultSet.next()) {
+                return null;
+            }
+            if (isSource) {
+                comparator.readSource(resultSet, buffer);
+            } else {
+                comparator.readTarget(resultSet, buffer);
+            }
+            String[] row = new String[comparator.getColumnCount()];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = comparator.normalize(buffer, i);
+            }
+            return row;
+        };
+    }
+
+    private RowSource csvRows(Iterator<CSVRecord> records, int columnCount) {
+        return () -> {
+            if (!records.hasNext()) {
+                return null;
+            }
+            CSVRecord record = records.next();
+            String[] row = new String[columnCount];
+            for (int i = 0; i < columnCount && i < record.size(); i++) {
+                row[i] = ValueComparator.normalizeString(record.get(i), rules);
+            }
+            return row;
+        };
+    }
+
+    private static RowSource lines(BufferedReader reader) {
+        return () -> {
+            String line = reader.readLine();
+            return line == null ? null : new String[]{line};
+        };
+    }
+
+    private static Path spillDirectory() {
+        return Paths.get(System.getProperty("db.spillDir", System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * Iterates serialized records in sort order.
+     */
+    private interface RecordIterator {
+        byte[] next() throws IOException;
+    }
+
+    /**
+     * One side after sorting: either all rows in memory or a set of sorted run files.
+     */
+    private static class SortedRows implements AutoCloseable {
+        private final List<Path> runs = new ArrayList<>();
+        private final List<RunReader> openReaders = new ArrayList<>();
+        private List<byte[]> inMemory;
+
+        void spill(List<byte[]> records) throws IOException {
+            records.sort(RECORD_ORDER);
+            Path run = newRunFile();
+            try (RunWriter writer = new RunWriter(run)) {
+                for (byte[] record : records) {
+                    writer.write(record);
+                }
+            }
+        }
+
+        /**
+         * Merges runs in groups until at most SPILL_MERGE_FAN_IN remain, bounding open files and buffers.
+         */
+        void compact() throws IOException {
+            while (runs.size() > FrameworkConstants.SPILL_MERGE_FAN_IN) {
+                List<Path> group = new ArrayList<>(runs.subList(0, FrameworkConstants.SPILL_MERGE_FAN_IN));
+                Path merged = newRunFile();
+                List<RunReader> readers = new ArrayList<>();
+                try (RunWriter writer = new RunWriter(merged)) {
+                    for (Path path : group) {
+                        readers.add(new RunReader(path));
+                    }
+                    RecordIterator it = mergeRuns(readers);
+                    byte[] record;
+                    while ((record = it.next()) != null) {
+                        writer.write(record);
+                    }
+                } finally {
+                    for (RunReader reader : readers) {
+                        reader.close();
+                    }
+                }
+                runs.removeAll(group);
+                for (Path path : group) {
+                    delete(path);
+                }
+            }
+        }
+
+        RecordIterator open() throws IOException {
+            if (inMemory != null) {
+                Iterator<byte[]> it = inMemory.iterator();
+                return () -> it.hasNext() ? it.next() : null;
+            }
+            for (Path path : runs) {
+                openReaders.add(new RunReader(path));
+            }
+            return mergeRuns(openReaders);
+        }
+
+        int runCount() {
+            return runs.size();
+        }
+
+        private Path newRunFile() throws IOException {
+            Path run = Files.createTempFile(spillDirectory(), "diff-run-", ".bin");
+            run.toFile().deleteOnExit();
+            runs.add(run);
+            return run;
+        }
+
+        @Override
+        public void close() {
+            inMemory = null;
+            // Files still open cannot be deleted on Windows
+            for (RunReader reader : openReaders) {
+                reader.close();
+            }
+            openReaders.clear();
+            for (Path path : runs) {
+                delete(path);
+            }
+            runs.clear();
+        }
+
+        private static void delete(Path path) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("Could not delete spill file {}: {}", path, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * K-way merge of sorted runs, taking the smallest head record each time.
+     */
+    private static RecordIterator mergeRuns(List<RunReader> readers) throws IOException {
+        PriorityQueue<RunReader> heads = new PriorityQueue<>(Math.max(1, readers.size()),
+                (a, b) -> RECORD_ORDER.compare(a.current, b.current));
+        for (RunReader reader : readers) {
+            if (reader.advance()) {
+                heads.add(reader);
+            } else {
+                reader.close();
+            }
+        }
+        return () -> {
+            RunReader reader = heads.poll();
+            if (reader == null) {
+                return null;
+            }
+            byte[] record = reader.current;
+            if (reader.advance()) {
+                heads.add(reader);
+            } else {
+                reader.close();
+            }
+            return record;
+        };
+    }
+
+    /**
+     * Writes [length][record] entries through a buffered stream.
+     */
+    private static class RunWriter implements AutoCloseable {
+        private final DataOutputStream out;
+
+        RunWriter(Path path) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), IO_BUFFER_BYTES));
+        }
+
+        void write(byte[] record) throws IOException {
+            out.writeInt(record.length);
+            out.write(record);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * Reads [length][record] entries through a buffered stream. Closing it more than once is harmless.
+     */
+    private static class RunReader implements AutoCloseable {
+        private final DataInputStream in;
+        private byte[] current;
+
+        RunReader(Path path) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), IO_BUFFER_BYTES));
+        }
+
+        boolean advance() throws IOException {
+            int length;
+            try {
+                length = in.readInt();
+            } catch (EOFException e) {
+                current = null;
+                return false;
+            }
+            current = new byte[length];
+            in.readFully(current);
+            return true;
+        }
+
+        @Override
+        public void close() {
+            try {
+                in.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
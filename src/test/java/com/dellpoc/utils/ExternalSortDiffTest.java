@@ -0,0 +1,174 @@
+package com.dellpoc.utils;
+
+import com.dellpoc.pojo.ComparisonRules;
+import com.dellpoc.pojo.ReconciliationResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the spill and merge path with a memory budget of a few rows, so that every side is written to
+ * hundreds of runs and compacted before the final merge.
+ */
+class ExternalSortDiffTest {
+
+    private static final long TINY_BUDGET = 1024;
+    private static final String[] COLUMNS = {"id", "name", "amount"};
+
+    @TempDir
+    Path spillDir;
+
+    private String previousSpillDir;
+
+    @BeforeEach
+    void useTempSpillDir() {
+        previousSpillDir = System.getProperty("db.spillDir");
+        System.setProperty("db.spillDir", spillDir.toString());
+    }
+
+    @AfterEach
+    void restoreSpillDir() {
+        if (previousSpillDir == null) {
+            System.clearProperty("db.spillDir");
+        } else {
+            System.setProperty("db.spillDir", previousSpillDir);
+        }
+    }
+
+    @Test
+    void keyedDiffAcrossSpilledRunsMatchesInMemoryDiff() throws Exception {
+        List<String[]> source = new ArrayList<>();
+        List<String[]> target = new ArrayList<>();
+        for (int id = 0; id < 5000; id++) {
+            String[] row = {String.valueOf(id), "name-" + id, String.valueOf(id * 3)};
+            source.add(row);
+            if (id % 100 == 1) {
+                continue;
+            }
+            target.add(id % 250 == 7 ? new String[]{row[0], row[1], "changed"} : row);
+        }
+        target.add(new String[]{"9001", "extra", "1"});
+        target.add(new String[]{"9002", "extra", "2"});
+        Collections.shuffle(source, new Random(1));
+        Collections.shuffle(target, new Random(2));
+
+        ReconciliationResult spilled = keyed(TINY_BUDGET).diff(COLUMNS, rows(source), rows(target));
+        ReconciliationResult inMemory = keyed(64L * 1024 * 1024).diff(COLUMNS, rows(source), rows(target));
+
+        assertEquals(5000, spilled.getSourceRows());
+        assertEquals(4952, spilled.getTargetRows());
+        assertEquals(50, spilled.getMissingRows());
+        assertEquals(2, spilled.getExtraRows());
+        assertEquals(20, spilled.getChangedRows());
+        assertEquals(4930, spilled.getMatchedRows());
+        assertEquals(inMemory.toString(), spilled.toString());
+        assertNoSpillFiles();
+    }
+
+    @Test
+    void keylessDiffComparesSpilledRowsAsMultiset() throws Exception {
+        List<String[]> source = new ArrayList<>();
+        List<String[]> target = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            String[] row = {String.valueOf(i % 1000), "name", null};
+            source.add(row);
+            if (i != 10) {
+                target.add(row);
+            }
+        }
+        target.add(new String[]{"5", "name", null});
+        Collections.shuffle(target, new Random(3));
+
+        ExternalSortDiff diff = new ExternalSortDiff(Collections.emptyList(), TINY_BUDGET, 10, ComparisonRules.defaults());
+        ReconciliationResult result = diff.diff(COLUMNS, rows(source), rows(target));
+
+        assertEquals(2999, result.getMatchedRows());
+        assertEquals(1, result.getMissingRows());
+        assertEquals(1, result.getExtraRows());
+        assertEquals(0, result.getChangedRows());
+        assertNoSpillFiles();
+    }
+
+    @Test
+    void identicalSpilledSidesMatch() throws Exception {
+        List<String[]> rows = new ArrayList<>();
+        for (int id = 0; id < 2000; id++) {
+            rows.add(new String[]{String.valueOf(id), "same", null});
+        }
+        List<String[]> shuffled = new ArrayList<>(rows);
+        Collections.shuffle(shuffled, new Random(4));
+
+        ReconciliationResult result = keyed(TINY_BUDGET).diff(COLUMNS, rows(rows), rows(shuffled));
+
+        assertTrue(result.isMatch(), result.toString());
+        assertEquals(2000, result.getMatchedRows());
+        assertNoSpillFiles();
+    }
+
+    @Test
+    void failedSideDeletesTheOtherSidesRuns() throws Exception {
+        List<String[]> source = new ArrayList<>();
+        for (int id = 0; id < 2000; id++) {
+            source.add(new String[]{String.valueOf(id), "name", "1"});
+        }
+        CountDownLatch sourceRead = new CountDownLatch(1);
+        Iterator<String[]> it = source.iterator();
+        ExternalSortDiff.RowSource sourceRows = () -> {
+            if (it.hasNext()) {
+                return it.next();
+            }
+            sourceRead.countDown();
+            return null;
+        };
+        ExternalSortDiff.RowSource failingTarget = () -> {
+            sourceRead.await();
+            throw new IOException("target failed");
+        };
+
+        IOException e = assertThrows(IOException.class, () -> keyed(TINY_BUDGET).diff(COLUMNS, sourceRows, failingTarget));
+
+        assertEquals("target failed", e.getMessage());
+        // The source side may still be finishing its last run when the failure is thrown
+        long deadline = System.currentTimeMillis() + 5000;
+        while (spillFileCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertNoSpillFiles();
+    }
+
+    private static ExternalSortDiff keyed(long budget) {
+        return new ExternalSortDiff(Collections.singletonList("id"), budget, 10, ComparisonRules.defaults());
+    }
+
+    private static ExternalSortDiff.RowSource rows(List<String[]> rows) {
+        Iterator<String[]> it = rows.iterator();
+        return () -> it.hasNext() ? Arrays.copyOf(it.next(), COLUMNS.length) : null;
+    }
+
+    private void assertNoSpillFiles() throws IOException {
+        assertEquals(0, spillFileCount(), "spill files left in " + spillDir);
+    }
+
+    private long spillFileCount() throws IOException {
+        try (Stream<Path> files = Files.list(spillDir)) {
+            return files.count();
+        }
+    }
+}
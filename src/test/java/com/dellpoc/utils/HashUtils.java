@@ -0,0 +1,73 @@
+package com.dellpoc.utils;
+
+/**
+ * Allocation-free 64-bit hashing for fingerprints and sketches.
+ */
+public class HashUtils {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long NULL_MARKER = 0x6a09e667f3bcc909L;
+
+    /**
+     * @return The starting value for an incremental hash.
+     */
+    public static long start() {
+        return FNV_OFFSET;
+    }
+
+    /**
+     * Folds a string value into an incremental hash. Nulls and empty strings hash differently,
+     * and the length is included so that ("ab", "c") and ("a", "bc") differ.
+     *
+     * @param hash  The hash so far.
+     * @param value The value to add, may be null.
+     * @return The updated hash.
+     */
+    public static long add(long hash, CharSequence value) {
+        if (value == null) {
+            return (hash ^ NULL_MARKER) * FNV_PRIME;
+        }
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        return (hash ^ length) * FNV_PRIME;
+    }
+
+    /**
+     * Folds a long value into an incremental hash.
+     *
+     * @param hash  The hash so far.
+     * @param value The value to add.
+     * @return The updated hash.
+     */
+    public static long add(long hash, long value) {
+        return (hash ^ value) * FNV_PRIME;
+    }
+
+    /**
+     * Finalizes an incremental hash so that all 64 bits are well distributed (MurmurHash3 fmix64).
+     *
+     * @param hash The hash so far.
+     * @return The finalized hash.
+     */
+    public static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Hashes a single string value.
+     *
+     * @param value The value to hash, may be null.
+     * @return The 64-bit hash.
+     */
+    public static long hash64(CharSequence value) {
+        return finish(add(start(), value));
+    }
+}
@@ -0,0 +1,58 @@
+package com.dellpoc.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the estimate stays within a few standard errors, for small counts as well as large ones, and that merging
+ * partitions gives the same estimate as one sketch over all values.
+ */
+class HyperLogLogTest {
+
+    @Test
+    void estimatesDistinctCountsWithinTheStandardError() {
+        for (int distinct : new int[]{10, 1_000, 100_000, 1_000_000}) {
+            HyperLogLog sketch = new HyperLogLog(12);
+            for (int i = 0; i < distinct; i++) {
+                long hash = HashUtils.hash64("value-" + i);
+                sketch.add(hash);
+                sketch.add(hash);
+            }
+            double error = Math.abs(sketch.estimate() - distinct) / (double) distinct;
+            assertTrue(error < 0.05, distinct + " distinct values estimated as " + sketch.estimate());
+        }
+    }
+
+    @Test
+    void mergedPartitionsEstimateLikeOneSketch() {
+        HyperLogLog all = new HyperLogLog(12);
+        HyperLogLog first = new HyperLogLog(12);
+        HyperLogLog second = new HyperLogLog(12);
+        for (int i = 0; i < 50_000; i++) {
+            long hash = HashUtils.hash64("value-" + i);
+            all.add(hash);
+            (i % 3 == 0 ? first : second).add(hash);
+        }
+        first.merge(second);
+
+        assertEquals(all.estimate(), first.estimate());
+    }
+
+    @Test
+    void clearResetsTheEstimate() {
+        HyperLogLog sketch = new HyperLogLog(8);
+        sketch.add(HashUtils.hash64("a"));
+        sketch.clear();
+
+        assertEquals(0, sketch.estimate());
+    }
+
+    @Test
+    void rejectsMismatchedPrecision() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(3));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(12).merge(new HyperLogLog(10)));
+    }
+}
@@ -0,0 +1,180 @@
+package com.dellpoc.utils;
+
+import com.dellpoc.constants.FrameworkConstants;
+import com.dellpoc.enums.DatabaseDialect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+/**
+ * Runs a validation only over the rows added since it last passed, using a monotonically increasing
+ * timestamp or sequence column as the high-water mark. The upper end of the window is read from the
+ * source before the check runs, so rows that arrive during the check are left for the next run, and the
+ * mark is advanced in the {@link WatermarkStore} only when the check passes.
+ * <p>
+ * The next run starts after the mark, so a row that becomes visible after a run with a mark at or below the
+ * run's upper end is never checked. Where rows can commit out of mark order, e.g. timestamps taken at insert
+ * by concurrent transactions, set a lag with -Ddb.watermarkLag (milliseconds for timestamp marks, units for
+ * sequence marks): the window then ends that far below the newest mark, leaving recent rows for a later run.
+ */
+public class IncrementalValidator {
+
+    private static final Logger log = LoggerFactory.getLogger(IncrementalValidator.class);
+
+    private static final long DEFAULT_LAG = Long.getLong("db.watermarkLag", FrameworkConstants.WATERMARK_LAG);
+
+    private final String name;
+    private final String watermarkColumn;
+    private final long lag;
+
+    /**
+     * Checks one window of rows.
+     */
+    public interface WindowCheck {
+        /**
+         * @param sourceWindow The source query restricted to the window.
+         * @param targetWindow The target query restricted to the window, or null for single-sided checks.
+         * @return True if the check passes.
+         * @throws Exception If the check cannot be run.
+         */
+        boolean check(String sourceWindow, String targetWindow) throws Exception;
+    }
+
+    /**
+     * @param name            A name that identifies the validation in the state file.
+     * @param watermarkColumn The timestamp or sequence column that grows with every new row.
+     */
+    public IncrementalValidator(String name, String watermarkColumn) {
+        this(name, watermarkColumn, DEFAULT_LAG);
+    }
+
+    /**
+     * @param name            A name that identifies the validation in the state file.
+     * @param watermarkColumn The timestamp or sequence column that grows with every new row.
+     * @param lag             How far below the newest mark the window ends: milliseconds for timestamp marks,
+     *                        units for sequence marks, or 0 to validate up to the newest row.
+     */
+    public IncrementalValidator(String name, String watermarkColumn, long lag) {
+        if (lag < 0) {
+            throw new IllegalArgumentException("Watermark lag must not be negative: " + lag);
+        }
+        this.name = name;
+        this.watermarkColumn = watermarkColumn;
+        this.lag = lag;
+    }
+
+    /**
+     * Runs a single-sided check over the rows beyond the mark.
+     *
+     * @param conn  The database connection.
+     * @param query The SQL query.
+     * @param check The check to run on the windowed query.
+     * @return True if there were no new rows or the check passed.
+     * @throws Exception If the check cannot be run.
+     */
+    public boolean validate(Connection conn, String query, WindowCheck check) throws Exception {
+        return validate(conn, query, null, null, check);
+    }
+
+    /**
+     * Runs a source/target check over the rows beyond the mark on both sides.
+     *
+     * @param sourceConn  The source database connection.
+     * @param sourceQuery The SQL query for the source table.
+     * @param targetConn  The target database connection, or null for single-sided checks.
+     * @param targetQuery The SQL query for the target table, or null for single-sided checks.
+     * @param check       The check to run on the windowed queries.
+     * @return True if there were no new rows or the check passed.
+     * @throws Exception If the check cannot be run.
+     */
+    public boolean validate(Connection sourceConn, String sourceQuery, Connection targetConn, String targetQuery, WindowCheck check) throws Exception {
+        Object lower = WatermarkStore.get(name);
+        Object upper = maxMark(sourceConn, sourceQuery, lower);
+        if (upper == null) {
+            log.info("{}: no rows beyond watermark {}", name, lower);
+            return true;
+        }
+        upper = lagged(upper);
+        if (lower != null && compare(upper, lower) <= 0) {
+            log.info("{}: no rows beyond watermark {} older than the lag of {}", name, lower, lag);
+            return true;
+        }
+
+        String sourceWindow = window(sourceConn, sourceQuery, lower, upper);
+        String targetWindow = targetConn == null ? null : window(targetConn, targetQuery, lower, upper);
+        log.info("{}: validating {} in ({}, {}]", name, watermarkColumn, lower, upper);
+        boolean passed = check.check(sourceWindow, targetWindow);
+        if (passed) {
+            WatermarkStore.advance(name, upper);
+        } else {
+            log.warn("{}: check failed, watermark stays at {}", name, lower);
+        }
+        return passed;
+    }
+
+    /**
+     * Restricts a query to the rows with lower &lt; watermark column &lt;= upper.
+     */
+    private String window(Connection conn, String query, Object lower, Object upper) throws SQLException {
+        DatabaseDialect dialect = DatabaseDialect.fromConnection(conn);
+        String predicate = watermarkColumn + " <= " + dialect.literal(upper);
+        if (lower != null) {
+            predicate = watermarkColumn + " > " + dialect.literal(lower) + " AND " + predicate;
+        }
+        return "SELECT * FROM (" + query + ") iq WHERE " + predicate;
+    }
+
+    /**
+     * Moves the upper end of the window the lag below the newest mark.
+     */
+    private Object lagged(Object upper) {
+        if (lag == 0) {
+            return upper;
+        }
+        if (upper instanceof Timestamp) {
+            return new Timestamp(((Timestamp) upper).getTime() - lag);
+        }
+        return ((BigDecimal) upper).subtract(BigDecimal.valueOf(lag));
+    }
+
+    /**
+     * Compares two marks of the same kind; a mark of another kind, after the column type changed, counts as newer.
+     */
+    private static int compare(Object mark, Object other) {
+        if (mark instanceof Timestamp && other instanceof Timestamp) {
+            return ((Timestamp) mark).compareTo((Timestamp) other);
+        }
+        if (mark instanceof BigDecimal && other instanceof BigDecimal) {
+            return ((BigDecimal) mark).compareTo((BigDecimal) other);
+        }
+        return 1;
+    }
+
+    private Object maxMark(Connection conn, String query, Object lower) throws SQLException {
+        String sql = "SELECT MAX(" + watermarkColumn + ") FROM (" + query + ") wq";
+        if (lower != null) {
+            sql += " WHERE " + watermarkColumn + " > " + DatabaseDialect.fromConnection(conn).literal(lower);
+        }
+        try (Statement stm = DBUtils.createCursorStatement(conn);
+             ResultSet resultSet = stm.executeQuery(sql)) {
+            if (!resultSet.next()) {
+                return null;
+            }
+            switch (resultSet.getMetaData().getColumnType(1)) {
+                case Types.DATE:
+                case Types.TIMESTAMP:
+                case Types.TIMESTAMP_WITH_TIMEZONE:
+                    return resultSet.getTimestamp(1);
+                default:
+                    return resultSet.getBigDecimal(1);
+            }
+        }
+    }
+}
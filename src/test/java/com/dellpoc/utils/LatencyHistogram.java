@@ -0,0 +1,83 @@
+package com.dellpoc.utils;
+
+/**
+ * Fixed-size log-linear latency histogram with microsecond resolution and about 6% relative precision
+ * (16 sub-buckets per power of two) up to roughly 12 days. Recording is allocation-free; histograms merge
+ * by adding counts. Not thread-safe; callers synchronize.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 16;
+    private static final int MAX_EXPONENT = 40;
+
+    private final long[] counts = new long[(MAX_EXPONENT - 2) * SUB_BUCKETS];
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+
+    public void record(long nanos) {
+        count++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+        counts[index(Math.max(0, nanos / 1000))]++;
+    }
+
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        totalNanos += other.totalNanos;
+        maxNanos = Math.max(maxNanos, other.maxNanos);
+    }
+
+    /**
+     * @param quantile The quantile, e.g. 0.95.
+     * @return The latency at the quantile in milliseconds, as the midpoint of its bucket.
+     */
+    public double percentileMillis(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * count);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= Math.max(1, rank)) {
+                return Math.min(midpointMicros(i) / 1000.0, maxNanos / 1_000_000.0);
+            }
+        }
+        return maxNanos / 1_000_000.0;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getTotalMillis() {
+        return totalNanos / 1_000_000.0;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos / 1_000_000.0;
+    }
+
+    private static int index(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = Math.min(MAX_EXPONENT - 1, 63 - Long.numberOfLeadingZeros(micros));
+        int sub = (int) ((micros >>> (exponent - 4)) & (SUB_BUCKETS - 1));
+        return (exponent - 3) * SUB_BUCKETS + sub;
+    }
+
+    private static double midpointMicros(int index) {
+        if (index < SUB_BUCKETS) {
+            return index + 0.5;
+        }
+        int exponent = index / SUB_BUCKETS + 3;
+        int sub = index % SUB_BUCKETS;
+        long lower = (long) (SUB_BUCKETS + sub) << (exponent - 4);
+        return lower + (1L << (exponent - 4)) / 2.0;
+    }
+}
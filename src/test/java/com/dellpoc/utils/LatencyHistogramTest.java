@@ -0,0 +1,61 @@
+package com.dellpoc.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks percentiles against exact values within the bucket precision, and that merged histograms add up.
+ */
+class LatencyHistogramTest {
+
+    private static final double PRECISION = 0.07;
+
+    @Test
+    void percentilesAreWithinTheBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 1000; millis++) {
+            histogram.record(millis * 1_000_000L);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500.0, histogram.percentileMillis(0.5), 500 * PRECISION);
+        assertEquals(950.0, histogram.percentileMillis(0.95), 950 * PRECISION);
+        assertEquals(990.0, histogram.percentileMillis(0.99), 990 * PRECISION);
+        assertEquals(1000.0, histogram.percentileMillis(1.0), 1000 * PRECISION);
+        assertEquals(1000.0, histogram.getMaxMillis(), 1e-9);
+        assertEquals(500_500.0, histogram.getTotalMillis(), 1e-6);
+    }
+
+    @Test
+    void percentileNeverExceedsTheMaximum() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_234_567L);
+
+        assertEquals(1.234567, histogram.percentileMillis(0.99), 1e-9);
+    }
+
+    @Test
+    void emptyHistogramReportsZero() {
+        assertEquals(0.0, new LatencyHistogram().percentileMillis(0.95), 0);
+    }
+
+    @Test
+    void mergeAddsCountsAndKeepsTheMaximum() {
+        LatencyHistogram fast = new LatencyHistogram();
+        LatencyHistogram slow = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            fast.record(2_000_000L);
+        }
+        for (int i = 0; i < 10; i++) {
+            slow.record(3_000_000_000L);
+        }
+        fast.merge(slow);
+
+        assertEquals(100, fast.getCount());
+        assertEquals(3000.0, fast.getMaxMillis(), 1e-9);
+        assertEquals(2.0, fast.percentileMillis(0.5), 2 * PRECISION);
+        assertEquals(3000.0, fast.percentileMillis(0.95), 3000 * PRECISION);
+        assertEquals(90 * 2.0 + 10 * 3000.0, fast.getTotalMillis(), 1e-6);
+    }
+}
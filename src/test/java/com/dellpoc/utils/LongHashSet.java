@@ -0,0 +1,120 @@
+package com.dellpoc.utils;
+
+/**
+ * Open-addressing hash set of primitive longs with linear probing.
+ * Uses 8 bytes per slot and no per-entry objects, so tens of millions of fingerprints fit in a small heap.
+ */
+public class LongHashSet {
+    private static final long EMPTY = 0L;
+    private static final double LOAD_FACTOR = 0.5;
+
+    private long[] slots;
+    private int size;
+    private boolean containsEmpty;
+
+    public LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        slots = new long[capacity];
+    }
+
+    /**
+     * Returns the number of bytes a set holding the given number of values needs at most.
+     *
+     * @param values The number of values.
+     * @return The approximate heap size in bytes.
+     */
+    public static long bytesFor(long values) {
+        return (long) (values / LOAD_FACTOR) * 2 * Long.BYTES;
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value The value to add.
+     * @return True if the value was not already present.
+     */
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            if (containsEmpty) {
+                return false;
+            }
+            containsEmpty = true;
+            size++;
+            return true;
+        }
+        if (size >= slots.length * LOAD_FACTOR) {
+            rehash(slots.length << 1);
+        }
+        int mask = slots.length - 1;
+        int i = mix(value) & mask;
+        while (slots[i] != EMPTY) {
+            if (slots[i] == value) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        slots[i] = value;
+        size++;
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == EMPTY) {
+            return containsEmpty;
+        }
+        int mask = slots.length - 1;
+        int i = mix(value) & mask;
+        while (slots[i] != EMPTY) {
+            if (slots[i] == value) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return A copy of all values in the set, in no particular order.
+     */
+    public long[] toArray() {
+        long[] values = new long[size];
+        int n = 0;
+        if (containsEmpty) {
+            values[n++] = EMPTY;
+        }
+        for (long slot : slots) {
+            if (slot != EMPTY) {
+                values[n++] = slot;
+            }
+        }
+        return values;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = slots;
+        slots = new long[capacity];
+        int mask = capacity - 1;
+        for (long value : old) {
+            if (value != EMPTY) {
+                int i = mix(value) & mask;
+                while (slots[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                slots[i] = value;
+            }
+        }
+    }
+
+    private static int mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,61 @@
+package com.dellpoc.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the set against a HashSet, including growth past the expected size and zero, which is the empty slot marker.
+ */
+class LongHashSetTest {
+
+    @Test
+    void behavesLikeHashSetWhileGrowing() {
+        LongHashSet set = new LongHashSet(4);
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextInt(50_000) - 25_000L;
+            assertEquals(expected.add(value), set.add(value));
+        }
+        assertEquals(expected.size(), set.size());
+        for (long value = -30_000; value < 30_000; value++) {
+            assertEquals(expected.contains(value), set.contains(value));
+        }
+
+        long[] values = set.toArray();
+        Arrays.sort(values);
+        assertArrayEquals(expected.stream().mapToLong(Long::longValue).sorted().toArray(), values);
+    }
+
+    @Test
+    void zeroIsStoredLikeAnyOtherValue() {
+        LongHashSet set = new LongHashSet(16);
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(0));
+
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertTrue(set.add(Long.MIN_VALUE));
+
+        assertTrue(set.contains(0));
+        assertTrue(set.contains(Long.MIN_VALUE));
+        assertEquals(2, set.size());
+        long[] values = set.toArray();
+        Arrays.sort(values);
+        assertArrayEquals(new long[]{Long.MIN_VALUE, 0}, values);
+    }
+
+    @Test
+    void bytesForCoversTheSlotArray() {
+        assertTrue(LongHashSet.bytesFor(1_000_000) >= 1_000_000 / 0.5 * Long.BYTES);
+    }
+}
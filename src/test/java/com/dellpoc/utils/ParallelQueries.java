@@ -0,0 +1,186 @@
+package com.dellpoc.utils;
+
+import com.dellpoc.constants.FrameworkConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the source and target side of a validation at the same time on a bounded pool of daemon threads.
+ * Statements created through DBUtils while a side is running are tracked, so that when one side fails
+ * the statements of the other side are cancelled on the database server instead of running to completion.
+ */
+public class ParallelQueries {
+
+    private static final Logger log = LoggerFactory.getLogger(ParallelQueries.class);
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(0, FrameworkConstants.PARALLEL_QUERY_THREADS,
+            60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+                Thread thread = new Thread(r, "db-query-" + THREAD_COUNT.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.CallerRunsPolicy());
+    private static final ThreadLocal<Set<Statement>> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Runs both tasks concurrently and returns their results as [source, target].
+     * If either task fails, the other is cancelled and the first failure is thrown. A result the other side
+     * has already produced, such as an open Cursor, is closed if it is AutoCloseable, so it does not leak.
+     *
+     * @param source The source side.
+     * @param target The target side.
+     * @return The source and target results, in that order.
+     * @throws Exception The failure of whichever side failed first.
+     */
+    public static <V> List<V> runBoth(Callable<V> source, Callable<V> target) throws Exception {
+        Set<Statement> sourceStatements = ConcurrentHashMap.newKeySet();
+        Set<Statement> targetStatements = ConcurrentHashMap.newKeySet();
+        Outcome<V> outcome = new Outcome<>();
+        ExecutorCompletionService<V> completion = new ExecutorCompletionService<>(EXECUTOR);
+        Future<V> sourceFuture = completion.submit(tracked(source, sourceStatements, outcome));
+        Future<V> targetFuture = completion.submit(tracked(target, targetStatements, outcome));
+
+        try {
+            for (int i = 0; i < 2; i++) {
+                completion.take().get();
+            }
+            return Arrays.asList(sourceFuture.get(), targetFuture.get());
+        } catch (ExecutionException | InterruptedException e) {
+            cancel(sourceFuture, sourceStatements);
+            cancel(targetFuture, targetStatements);
+            outcome.fail();
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+                throw e;
+            }
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
+    /**
+     * Runs a task on each connection, concurrently as {@link #runBoth(Callable, Callable)} does when the connections
+     * differ, and one after the other when both are the same physical connection, which can only run one
+     * statement at a time.
+     *
+     * @param sourceConn The connection the source side uses.
+     * @param targetConn The connection the target side uses.
+     * @param source     The source side.
+     * @param target     The target side.
+     * @return The source and target results, in that order.
+     * @throws Exception The failure of whichever side failed first.
+     */
+    public static <V> List<V> runBoth(Connection sourceConn, Connection targetConn, Callable<V> source, Callable<V> target) throws Exception {
+        if (ConnectionPool.physical(sourceConn) != ConnectionPool.physical(targetConn)) {
+            return runBoth(source, target);
+        }
+        V sourceResult = source.call();
+        try {
+            return Arrays.asList(sourceResult, target.call());
+        } catch (Exception e) {
+            closeQuietly(sourceResult);
+            throw e;
+        }
+    }
+
+    /**
+     * Registers a statement with the side that is running on the current thread, if any.
+     *
+     * @param stm The statement to track.
+     * @return The same statement.
+     */
+    public static <S extends Statement> S track(S stm) {
+        Set<Statement> statements = CURRENT.get();
+        if (statements != null) {
+            statements.add(stm);
+        }
+        return stm;
+    }
+
+    /**
+     * Wraps a side so that its statements are tracked for cancellation, and count as the calling scenario's
+     * open statements and timings.
+     */
+    private static <V> Callable<V> tracked(Callable<V> task, Set<Statement> statements, Outcome<V> outcome) {
+        return QueryMetrics.inCurrentScenario(CursorTracker.inCurrentScope(() -> {
+            Set<Statement> previous = CURRENT.get();
+            CURRENT.set(statements);
+            try {
+                return outcome.produced(task.call());
+            } finally {
+                statements.clear();
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        }));
+    }
+
+    /**
+     * The results the sides have produced so far, closed when the run fails, including a result produced
+     * after the failure by a side that could not be cancelled in time.
+     */
+    private static class Outcome<V> {
+        private final List<V> results = new ArrayList<>();
+        private boolean failed;
+
+        synchronized V produced(V result) {
+            if (failed) {
+                closeQuietly(result);
+                return null;
+            }
+            results.add(result);
+            return result;
+        }
+
+        synchronized void fail() {
+            failed = true;
+            results.forEach(ParallelQueries::closeQuietly);
+            results.clear();
+        }
+    }
+
+    private static void closeQuietly(Object result) {
+        if (result instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) result).close();
+            } catch (Exception e) {
+                log.warn("Could not close the result of the other side: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static void cancel(Future<?> future, Set<Statement> statements) {
+        if (future.isDone()) {
+            return;
+        }
+        for (Statement stm : statements) {
+            try {
+                if (!stm.isClosed()) {
+                    stm.cancel();
+                }
+            } catch (SQLException e) {
+                log.warn("Could not cancel statement: {}", e.getMessage());
+            }
+        }
+        future.cancel(true);
+    }
+}
@@ -0,0 +1,147 @@
+package com.dellpoc.utils;
+
+import com.dellpoc.constants.FrameworkConstants;
+import com.dellpoc.enums.PartitionStrategy;
+import com.dellpoc.pojo.DBEndpoint;
+import com.dellpoc.pojo.ReconciliationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Splits a source/target reconciliation into partitions on an integral column and reconciles
+ * each partition concurrently on its own pair of connections.
+ */
+public class PartitionedReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionedReconciler.class);
+
+    private final List<String> keyColumns;
+    private final String partitionColumn;
+    private final int partitions;
+    private final PartitionStrategy strategy;
+
+    /**
+     * @param keyColumns      The columns that uniquely identify a row.
+     * @param partitionColumn The integral column used to split the data, usually the leading key column.
+     * @param partitions      The number of partitions, each reconciled on its own connection pair.
+     * @param strategy        How rows are assigned to partitions.
+     */
+    public PartitionedReconciler(List<String> keyColumns, String partitionColumn, int partitions, PartitionStrategy strategy) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("Partition count must be at least 1");
+        }
+        this.keyColumns = keyColumns;
+        this.partitionColumn = partitionColumn;
+        this.partitions = partitions;
+        this.strategy = strategy;
+    }
+
+    /**
+     * Reconciles all partitions concurrently and merges the partial results.
+     *
+     * @param source      The source database endpoint.
+     * @param sourceQuery The SQL query for the source table.
+     * @param target      The target database endpoint.
+     * @param targetQuery The SQL query for the target table.
+     * @return The merged structured diff.
+     * @throws Exception If any partition fails; the remaining partitions are cancelled.
+     */
+    public ReconciliationResult reconcile(DBEndpoint source, String sourceQuery, DBEndpoint target, String targetQuery) throws Exception {
+        long[] bounds = strategy == PartitionStrategy.KEY_RANGE ? findBounds(source, sourceQuery, target, targetQuery) : null;
+
+        // Each partition holds two pooled connections, which may come from the same pool
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(partitions, ConnectionPool.getMaxSize() / 2)));
+        List<Future<ReconciliationResult>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < partitions; i++) {
+                String sourcePart = partitionQuery(sourceQuery, source, i, bounds);
+                String targetPart = partitionQuery(targetQuery, target, i, bounds);
+                futures.add(executor.submit(QueryMetrics.inCurrentScenario(CursorTracker.inCurrentScope(
+                        () -> reconcilePartition(source, sourcePart, target, targetPart)))));
+            }
+
+            ReconciliationResult result = new ReconciliationResult(FrameworkConstants.DEFAULT_SAMPLE_LIMIT);
+            for (Future<ReconciliationResult> future : futures) {
+                result.merge(future.get());
+            }
+            log.info("Partitioned reconciliation over {} partitions finished: {}", partitions, result);
+            return result;
+        } catch (ExecutionException e) {
+            for (Future<ReconciliationResult> future : futures) {
+                future.cancel(true);
+            }
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ReconciliationResult reconcilePartition(DBEndpoint source, String sourceQuery, DBEndpoint target, String targetQuery) throws SQLException {
+        try (Connection sourceConn = ConnectionPool.getConnection(source.getUrl(), source.getUser(), source.getPassword());
+             Connection targetConn = ConnectionPool.getConnection(target.getUrl(), target.getUser(), target.getPassword())) {
+            return new StreamingReconciler(keyColumns).reconcile(sourceConn, sourceQuery, targetConn, targetQuery);
+        }
+    }
+
+    /**
+     * Restricts a query to one partition. Rows with a NULL partition column go to partition 0.
+     */
+    String partitionQuery(String query, DBEndpoint endpoint, int partition, long[] bounds) {
+        String predicate;
+        if (strategy == PartitionStrategy.HASH_MODULO) {
+            predicate = endpoint.getDialect().modulo(partitionColumn, partitions) + " = " + partition;
+        } else {
+            long step = Math.max(1, (bounds[1] - bounds[0]) / partitions + 1);
+            long lower = bounds[0] + step * partition;
+            predicate = partition == 0 ? "1 = 1" : partitionColumn + " >= " + lower;
+            if (partition < partitions - 1) {
+                predicate += " AND " + partitionColumn + " < " + (lower + step);
+            }
+        }
+        if (partition == 0) {
+            predicate = "(" + predicate + ") OR " + partitionColumn + " IS NULL";
+        }
+        return "SELECT * FROM (" + query + ") pq WHERE " + predicate;
+    }
+
+    private long[] findBounds(DBEndpoint source, String sourceQuery, DBEndpoint target, String targetQuery) throws SQLException {
+        long[] sourceBounds = queryBounds(source, sourceQuery);
+        long[] targetBounds = queryBounds(target, targetQuery);
+        if (sourceBounds == null && targetBounds == null) {
+            return new long[]{0, 0};
+        }
+        // An empty side has no bounds and must not stretch the range of the other
+        return new long[]{Math.min(sourceBounds == null ? Long.MAX_VALUE : sourceBounds[0], targetBounds == null ? Long.MAX_VALUE : targetBounds[0]),
+                Math.max(sourceBounds == null ? Long.MIN_VALUE : sourceBounds[1], targetBounds == null ? Long.MIN_VALUE : targetBounds[1])};
+    }
+
+    /**
+     * @return The MIN and MAX of the partition column, or null if the query returns no rows with a value.
+     */
+
+    private long[] queryBounds(DBEndpoint endpoint, String query) throws SQLException {
+        String boundsQuery = "SELECT MIN(" + partitionColumn + "), MAX(" + partitionColumn + ") FROM (" + query + ") bq";
+        try (Connection conn = ConnectionPool.getConnection(endpoint.getUrl(), endpoint.getUser(), endpoint.getPassword());
+             Statement stm = DBUtils.createCursorStatement(conn);
+             ResultSet resultSet = stm.executeQuery(boundsQuery)) {
+            resultSet.next();
+            long min = resultSet.getLong(1);
+            if (resultSet.wasNull()) {
+                return null;
+            }
+            long max = resultSet.getLong(2);
+            return new long[]{min, Math.max(min, max)};
+        }
+    }
+}
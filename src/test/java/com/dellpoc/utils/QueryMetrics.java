@@ -0,0 +1,335 @@
+package com.dellpoc.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Timing of every statement DBUtils creates, aggregated per SQL shape (the SQL with literals replaced by ?).
+ * Statements are wrapped in proxies that record execute time, and their result sets in a {@link TimedResultSet}
+ * that records time to first row, total fetch time, rows and an approximate byte count from the column sizes;
+ * pooled connections record how long a borrow took.
+ * Metrics are kept for the whole run and for the current scenario. Scenario metrics are per thread, since a
+ * scenario runs on one thread, so parallel scenarios do not report or reset each other's timings; tasks the
+ * scenario hands to worker threads are wrapped with {@link #inCurrentScenario(Callable)}.
+ * Disable with -Ddb.metrics=false.
+ */
+public class QueryMetrics {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryMetrics.class);
+    private static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("db.metrics"));
+    private static final int MAX_SHAPE_LENGTH = 300;
+    private static final int MAX_SHAPES = 10_000;
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Map<String, ShapeStats> RUN = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Map<String, ShapeStats>> SCENARIO = ThreadLocal.withInitial(ConcurrentHashMap::new);
+    private static final Map<String, String> SHAPES = new ConcurrentHashMap<>();
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Wraps a statement so that every query it runs is timed.
+     *
+     * @param stm The statement.
+     * @return The instrumented statement, or the statement itself if metrics are disabled.
+     */
+    public static Statement instrument(Statement stm) {
+        return ENABLED ? (Statement) wrap(stm, Statement.class, null) : stm;
+    }
+
+    /**
+     * Wraps a prepared statement so that every execution is timed under its SQL shape.
+     *
+     * @param ps  The prepared statement.
+     * @param sql The SQL it was prepared with.
+     * @return The instrumented statement, or the statement itself if metrics are disabled.
+     */
+    public static PreparedStatement instrument(PreparedStatement ps, String sql) {
+        return ENABLED ? (PreparedStatement) wrap(ps, PreparedStatement.class, sql) : ps;
+    }
+
+    /**
+     * Records the time taken to obtain a connection, including opening it if the pool had none idle.
+     *
+     * @param endpoint The user@url of the connection.
+     * @param nanos    The elapsed time.
+     */
+    public static void recordConnect(String endpoint, long nanos) {
+        if (ENABLED) {
+            record("CONNECT " + endpoint, nanos, 0, 0, 0, 0);
+        }
+    }
+
+    /**
+     * Reduces SQL to its shape: literals become ?, IN lists collapse and whitespace is normalized.
+     *
+     * @param sql The SQL text.
+     * @return The shape, truncated to a readable length.
+     */
+    public static String shape(String sql) {
+        if (sql == null) {
+            return "(unknown)";
+        }
+        String cached = SHAPES.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        if (SHAPES.size() > MAX_SHAPES) {
+            SHAPES.clear();
+        }
+        return SHAPES.computeIfAbsent(sql, s -> {
+            String shape = STRING_LITERAL.matcher(s).replaceAll("?");
+            shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+            shape = IN_LIST.matcher(shape).replaceAll("(?...)");
+            shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+            return shape.length() > MAX_SHAPE_LENGTH ? shape.substring(0, MAX_SHAPE_LENGTH) + "..." : shape;
+        });
+    }
+
+    /**
+     * Wraps a task for another thread so that the statements it runs are timed in the current thread's scenario.
+     *
+     * @param task The task.
+     * @return The wrapped task.
+     */
+    public static <V> Callable<V> inCurrentScenario(Callable<V> task) {
+        Map<String, ShapeStats> scenario = SCENARIO.get();
+        return () -> {
+            Map<String, ShapeStats> previous = SCENARIO.get();
+            SCENARIO.set(scenario);
+            try {
+                return task.call();
+            } finally {
+                SCENARIO.set(previous);
+            }
+        };
+    }
+
+    /**
+     * @return A table of the shapes run in the current thread's scenario, slowest total time first, or null if none ran.
+     */
+    public static String scenarioSummary() {
+        Map<String, ShapeStats> scenario = SCENARIO.get();
+        return scenario.isEmpty() ? null : summary(scenario);
+    }
+
+    /**
+     * Starts a new scenario on the current thread.
+     */
+    public static void resetScenario() {
+        SCENARIO.remove();
+    }
+
+    /**
+     * Writes the run-level metrics of every shape as JSON.
+     *
+     * @param file The file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void writeRunJson(Path file) throws IOException {
+        if (file.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            writer.write(toJson(RUN));
+        }
+        log.info("Wrote database metrics for {} SQL shapes to {}", RUN.size(), file);
+    }
+
+    static void record(String sql, long executeNanos, long firstRowNanos, long fetchNanos, long rows, long bytes) {
+        String shape = shape(sql);
+        RUN.computeIfAbsent(shape, ShapeStats::new).record(executeNanos, firstRowNanos, fetchNanos, rows, bytes);
+        SCENARIO.get().computeIfAbsent(shape, ShapeStats::new).record(executeNanos, firstRowNanos, fetchNanos, rows, bytes);
+    }
+
+    private static String summary(Map<String, ShapeStats> stats) {
+        StringBuilder sb = new StringBuilder(String.format("%8s %10s %12s %10s %10s %10s %10s %10s %10s  %s%n",
+                "count", "rows", "bytes", "total ms", "p50 ms", "p95 ms", "p99 ms", "1st row95", "fetch p95", "sql"));
+        for (ShapeStats s : sorted(stats)) {
+            synchronized (s) {
+                sb.append(String.format("%8d %10d %12d %10.1f %10.2f %10.2f %10.2f %10.2f %10.2f  %s%n",
+                        s.total.getCount(), s.rows, s.bytes, s.total.getTotalMillis(),
+                        s.total.percentileMillis(0.50), s.total.percentileMillis(0.95), s.total.percentileMillis(0.99),
+                        s.firstRow.percentileMillis(0.95), s.fetch.percentileMillis(0.95), s.shape));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String toJson(Map<String, ShapeStats> stats) {
+        StringBuilder sb = new StringBuilder("{\n  \"generatedAt\": \"").append(Instant.now()).append("\",\n  \"shapes\": [");
+        boolean first = true;
+        for (ShapeStats s : sorted(stats)) {
+            synchronized (s) {
+                sb.append(first ? "\n" : ",\n").append("    {\"sql\": ").append(jsonString(s.shape))
+                        .append(", \"count\": ").append(s.total.getCount())
+                        .append(", \"rows\": ").append(s.rows)
+                        .append(", \"bytes\": ").append(s.bytes)
+                        .append(", \"totalMs\": ").append(String.format(Locale.ROOT, "%.3f", s.total.getTotalMillis()))
+                        .append(", \"total\": ").append(jsonPercentiles(s.total))
+                        .append(", \"execute\": ").append(jsonPercentiles(s.execute))
+                        .append(", \"firstRow\": ").append(jsonPercentiles(s.firstRow))
+                        .append(", \"fetch\": ").append(jsonPercentiles(s.fetch))
+                        .append('}');
+            }
+            first = false;
+        }
+        return sb.append("\n  ]\n}\n").toString();
+    }
+
+    private static String jsonPercentiles(LatencyHistogram h) {
+        return String.format(Locale.ROOT, "{\"p50\": %.3f, \"p95\": %.3f, \"p99\": %.3f, \"max\": %.3f}",
+                h.percentileMillis(0.50), h.percentileMillis(0.95), h.percentileMillis(0.99), h.getMaxMillis());
+    }
+
+    private static String jsonString(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private static List<ShapeStats> sorted(Map<String, ShapeStats> stats) {
+        List<ShapeStats> list = new ArrayList<>(stats.values());
+        list.sort(Comparator.comparingDouble((ShapeStats s) -> s.total.getTotalMillis()).reversed());
+        return list;
+    }
+
+    private static Object wrap(Object target, Class<?> type, String preparedSql) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new StatementTimer(target, preparedSql));
+    }
+
+    /**
+     * Delegates a call to the wrapped object. equals and hashCode use the proxy's identity so that proxies
+     * work as keys in CursorTracker and the statement caches.
+     */
+    private static Object invoke(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                break;
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Times executions and wraps the result sets they return.
+     */
+    private static class StatementTimer implements InvocationHandler {
+        private final Object statement;
+        private final String preparedSql;
+        private String lastSql;
+
+        StatementTimer(Object statement, String preparedSql) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (!name.startsWith("execute") && !"getResultSet".equals(name)) {
+                return QueryMetrics.invoke(proxy, statement, method, args);
+            }
+            if ("getResultSet".equals(name)) {
+                ResultSet resultSet = (ResultSet) QueryMetrics.invoke(proxy, statement, method, args);
+                return resultSet == null ? null : new TimedResultSet(resultSet, lastSql, 0);
+            }
+
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+            lastSql = sql;
+            long start = System.nanoTime();
+            Object result = QueryMetrics.invoke(proxy, statement, method, args);
+            long elapsed = System.nanoTime() - start;
+            if (result instanceof ResultSet) {
+                return new TimedResultSet((ResultSet) result, sql, elapsed);
+            }
+            record(sql, elapsed, 0, 0, updateCount(result), 0);
+            return result;
+        }
+
+        private static long updateCount(Object result) {
+            if (result instanceof Number) {
+                return Math.max(0, ((Number) result).longValue());
+            }
+            long rows = 0;
+            if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    rows += Math.max(0, count);
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    rows += Math.max(0, count);
+                }
+            }
+            return rows;
+        }
+    }
+
+    /**
+     * Latency histograms and totals for one SQL shape.
+     */
+    private static class ShapeStats {
+        private final String shape;
+        private final LatencyHistogram total = new LatencyHistogram();
+        private final LatencyHistogram execute = new LatencyHistogram();
+        private final LatencyHistogram firstRow = new LatencyHistogram();
+        private final LatencyHistogram fetch = new LatencyHistogram();
+        private long rows;
+        private long bytes;
+
+        ShapeStats(String shape) {
+            this.shape = shape;
+        }
+
+        synchronized void record(long executeNanos, long firstRowNanos, long fetchNanos, long rowCount, long byteCount) {
+            total.record(executeNanos + fetchNanos);
+            execute.record(executeNanos);
+            firstRow.record(firstRowNanos);
+            fetch.record(fetchNanos);
+            rows += rowCount;
+            bytes += byteCount;
+        }
+    }
+}
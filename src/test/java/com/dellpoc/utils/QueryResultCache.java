@@ -0,0 +1,204 @@
+package com.dellpoc.utils;
+
+import com.dellpoc.constants.FrameworkConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Opt-in cache for the results of repeated lookup queries, keyed by database, lookup kind and SQL text.
+ * Pooled connections share entries per (url, user, password); any other connection gets its own entries.
+ * Entries expire after a TTL, the least recently used entries are evicted beyond a size limit,
+ * and DML run through DBUtils invalidates every entry whose SQL mentions the affected table.
+ * Enable with -Ddb.queryCache=true or {@link #setEnabled(boolean)}.
+ */
+public class QueryResultCache {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryResultCache.class);
+    private static final Pattern NAME = Pattern.compile("[\\w$#]+");
+    private static final Pattern WRITE_TABLE = Pattern.compile(
+            "^\\s*(?:INSERT\\s+INTO|UPDATE|DELETE\\s+FROM|DELETE|MERGE\\s+INTO|TRUNCATE\\s+TABLE|REPLACE\\s+INTO)\\s+([\\w.$#\"]+)",
+            Pattern.CASE_INSENSITIVE);
+
+    private static volatile boolean enabled = Boolean.getBoolean("db.queryCache");
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong connectionIds = new AtomicLong();
+    private static final Map<Connection, String> UNPOOLED_KEYS = new WeakHashMap<>();
+    private static final Map<String, Entry> ENTRIES = new LinkedHashMap<String, Entry>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > FrameworkConstants.QUERY_CACHE_MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * Loads a value on a cache miss.
+     */
+    public interface Loader<T> {
+        T load() throws Exception;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enable) {
+        enabled = enable;
+        if (!enable) {
+            clear();
+        }
+    }
+
+    /**
+     * Returns the cached value for the query, loading and caching it on a miss or after expiry.
+     * When the cache is disabled the loader is always called.
+     *
+     * @param conn   The database connection.
+     * @param kind   The kind of lookup, so that the same SQL read as different types is cached separately.
+     * @param query  The SQL query.
+     * @param loader Runs the query.
+     * @return The cached or freshly loaded value.
+     * @throws Exception If the loader fails.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T get(Connection conn, String kind, String query, Loader<T> loader) throws Exception {
+        if (!enabled) {
+            return loader.load();
+        }
+        String key = connectionKey(conn) + "|" + kind + "|" + query;
+        long now = System.currentTimeMillis();
+        synchronized (ENTRIES) {
+            Entry entry = ENTRIES.get(key);
+            if (entry != null && entry.expiresAt > now) {
+                hits.incrementAndGet();
+                return (T) entry.value;
+            }
+        }
+
+        misses.incrementAndGet();
+        T value = loader.load();
+        synchronized (ENTRIES) {
+            ENTRIES.put(key, new Entry(value, readTables(query), now + FrameworkConstants.QUERY_CACHE_TTL_MS));
+        }
+        return value;
+    }
+
+    /**
+     * Removes every cached result that reads the table written by a DML statement.
+     * If the table cannot be determined the whole cache is cleared.
+     *
+     * @param dml The INSERT, UPDATE, DELETE, MERGE or TRUNCATE statement.
+     */
+    public static void invalidateFor(String dml) {
+        if (!enabled) {
+            return;
+        }
+        Matcher matcher = WRITE_TABLE.matcher(dml);
+        if (!matcher.find()) {
+            clear();
+            return;
+        }
+        invalidateTable(matcher.group(1));
+    }
+
+    /**
+     * Removes every cached result that reads the given table.
+     *
+     * @param table The table name, optionally schema-qualified.
+     */
+    public static void invalidateTable(String table) {
+        String name = simpleName(table);
+        int removed = 0;
+        synchronized (ENTRIES) {
+            Iterator<Entry> it = ENTRIES.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().tables.contains(name)) {
+                    it.remove();
+                    removed++;
+                }
+            }
+        }
+        if (removed > 0) {
+            log.debug("Invalidated {} cached results for table {}", removed, name);
+        }
+    }
+
+    public static void clear() {
+        synchronized (ENTRIES) {
+            ENTRIES.clear();
+        }
+    }
+
+    public static long getHits() {
+        return hits.get();
+    }
+
+    public static long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return A one-line summary of the cache counters.
+     */
+    public static String getStats() {
+        long h = hits.get();
+        long m = misses.get();
+        int size;
+        synchronized (ENTRIES) {
+            size = ENTRIES.size();
+        }
+        return String.format("Query cache: %d hits, %d misses (%.1f%% hit rate), %d entries",
+                h, m, h + m == 0 ? 0.0 : h * 100.0 / (h + m), size);
+    }
+
+    private static String connectionKey(Connection conn) {
+        String key = ConnectionPool.poolKey(conn);
+        if (key != null) {
+            return key;
+        }
+        synchronized (UNPOOLED_KEYS) {
+            return UNPOOLED_KEYS.computeIfAbsent(conn, c -> "#" + connectionIds.incrementAndGet());
+        }
+    }
+
+    /**
+     * Collects every name in the query rather than parsing its FROM clauses, so that comma joins, subqueries
+     * and table functions cannot hide a table. Names that are not tables only cause extra invalidations.
+     */
+    private static Set<String> readTables(String query) {
+        Set<String> tables = new HashSet<>();
+        Matcher matcher = NAME.matcher(query.replace("\"", ""));
+        while (matcher.find()) {
+            tables.add(matcher.group().toUpperCase());
+        }
+        return tables;
+    }
+
+    private static String simpleName(String table) {
+        String name = table.replace("\"", "");
+        return name.substring(name.lastIndexOf('.') + 1).toUpperCase();
+    }
+
+    private static class Entry {
+        private final Object value;
+        private final Set<String> tables;
+        private final long expiresAt;
+
+        Entry(Object value, Set<String> tables, long expiresAt) {
+            this.value = value;
+            this.tables = tables;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.dellpoc.utils;
+
+import com.dellpoc.constants.FrameworkConstants;
+import com.dellpoc.enums.DatabaseDialect;
+import com.dellpoc.pojo.ReconciliationResult;
+import com.dellpoc.pojo.SamplingResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+
+/**
+ * Reconciles a deterministic sample of the keys instead of the whole data set.
+ * A row is sampled when its key, reduced modulo a prime bucket count, multiplied by a coprime constant and
+ * offset by the seed, falls below a threshold modulo the same prime. The multiplier scatters consecutive keys
+ * across the buckets, so the sample is spread over the key range instead of being runs of adjacent keys. Both
+ * databases select exactly the same keys and repeated runs with the same seed check the same rows.
+ * The sampled rows are compared with the sort-merge {@link StreamingReconciler}, and the mismatch rate
+ * is reported with a confidence interval. Set -Ddb.sampleSeed to rotate the sample between runs.
+ */
+public class SamplingReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(SamplingReconciler.class);
+    private static final long SEED = Long.getLong("db.sampleSeed", 0L);
+
+    private final String keyColumn;
+    private final double sampleFraction;
+    private final double errorBound;
+
+    private SamplingReconciler(String keyColumn, double sampleFraction, double errorBound) {
+        if (keyColumn == null || keyColumn.isEmpty()) {
+            throw new IllegalArgumentException("A key column is required for sampled reconciliation");
+        }
+        this.keyColumn = keyColumn;
+        this.sampleFraction = sampleFraction;
+        this.errorBound = errorBound;
+    }
+
+    /**
+     * @param keyColumn      The non-null integral column that uniquely identifies a row on both sides.
+     * @param sampleFraction The fraction of keys to compare, between 0 and 1.
+     * @return A reconciler that samples a fixed fraction of the keys.
+     */
+    public static SamplingReconciler withFraction(String keyColumn, double sampleFraction) {
+        if (sampleFraction <= 0 || sampleFraction > 1) {
+            throw new IllegalArgumentException("Sample fraction must be in (0, 1]: " + sampleFraction);
+        }
+        return new SamplingReconciler(keyColumn, sampleFraction, 0);
+    }
+
+    /**
+     * @param keyColumn  The non-null integral column that uniquely identifies a row on both sides.
+     * @param errorBound The largest acceptable half-width of the confidence interval of the mismatch rate, e.g. 0.01.
+     * @return A reconciler that counts the source rows and samples just enough keys to meet the error bound.
+     */
+    public static SamplingReconciler withErrorBound(String keyColumn, double errorBound) {
+        if (errorBound <= 0 || errorBound >= 1) {
+            throw new IllegalArgumentException("Error bound must be in (0, 1): " + errorBound);
+        }
+        return new SamplingReconciler(keyColumn, 0, errorBound);
+    }
+
+    /**
+     * Reconciles the sampled keys of both queries.
+     *
+     * @param sourceConn  The source database connection.
+     * @param sourceQuery The SQL query for the source table.
+     * @param targetConn  The target database connection.
+     * @param targetQuery The SQL query for the target table.
+     * @return The diff of the sampled rows and the estimated mismatch rate.
+     * @throws SQLException If a database access error occurs.
+     */
+    public SamplingResult reconcile(Connection sourceConn, String sourceQuery, Connection targetConn, String targetQuery) throws SQLException {
+        long population = -1;
+        double fraction = sampleFraction;
+        if (errorBound > 0) {
+            population = countRows(sourceConn, sourceQuery);
+            fraction = fractionFor(errorBound, population);
+        }
+        int threshold = (int) Math.ceil(fraction * FrameworkConstants.SAMPLING_BUCKETS);
+        double effectiveFraction = (double) threshold / FrameworkConstants.SAMPLING_BUCKETS;
+
+        StreamingReconciler reconciler = new StreamingReconciler(Collections.singletonList(keyColumn));
+        ReconciliationResult result = reconciler.reconcile(
+                sourceConn, sampleQuery(sourceConn, sourceQuery, threshold),
+                targetConn, sampleQuery(targetConn, targetQuery, threshold));
+        SamplingResult sampling = new SamplingResult(result, effectiveFraction,
+                FrameworkConstants.SAMPLING_CONFIDENCE_Z, FrameworkConstants.SAMPLING_CONFIDENCE, population);
+        log.info("Sampled reconciliation finished: {}", sampling);
+        return sampling;
+    }
+
+    /**
+     * Returns the fraction of rows to sample so that the worst-case (p = 0.5) confidence interval of the
+     * mismatch rate has the given half-width, with the finite population correction applied.
+     *
+     * @param errorBound The half-width of the confidence interval.
+     * @param population The number of rows in the data set.
+     * @return The sample fraction, at most 1.
+     */
+    static double fractionFor(double errorBound, long population) {
+        if (population <= 0) {
+            return 1;
+        }
+        double z = FrameworkConstants.SAMPLING_CONFIDENCE_Z;
+        double n0 = z * z * 0.25 / (errorBound * errorBound);
+        double n = n0 / (1 + (n0 - 1) / population);
+        return Math.min(1, n / population);
+    }
+
+    private String sampleQuery(Connection conn, String query, int threshold) throws SQLException {
+        if (threshold >= FrameworkConstants.SAMPLING_BUCKETS) {
+            return query;
+        }
+        DatabaseDialect dialect = DatabaseDialect.fromConnection(conn);
+        int buckets = FrameworkConstants.SAMPLING_BUCKETS;
+        String mixed = dialect.modulo(keyColumn, buckets) + " * " + FrameworkConstants.SAMPLING_MULTIPLIER + " + " + Math.floorMod(SEED, buckets);
+        String bucket = dialect.modulo(mixed, buckets);
+        return "SELECT * FROM (" + query + ") sq WHERE " + bucket + " < " + threshold;
+    }
+
+    private static long countRows(Connection conn, String query) throws SQLException {
+        try (Statement stm = DBUtils.createCursorStatement(conn);
+             ResultSet resultSet = stm.executeQuery("SELECT COUNT(*) FROM (" + query + ") cq")) {
+            return resultSet.next() ? resultSet.getLong(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.dellpoc.utils;
+
+import com.dellpoc.pojo.ColumnInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Column metadata for queries and tables, read without fetching any rows and cached per connection
+ * for the rest of the test run, or until DDL run through DBUtils clears it.
+ */
+public class SchemaCache {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaCache.class);
+    private static final Map<Connection, Map<String, List<ColumnInfo>>> CACHES = new WeakHashMap<>();
+    private static final Pattern DDL = Pattern.compile("^\\s*(?:/\\*.*?\\*/\\s*)*(?:CREATE|ALTER|DROP|RENAME|COMMENT)\\b",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    /**
+     * Returns the result columns of a query. The query is prepared and the driver describes its result
+     * without running it; drivers that cannot describe a prepared statement run the query itself limited
+     * to one row. The query is not wrapped in a subquery, so ORDER BY and WITH clauses keep working on
+     * SQL Server.
+     *
+     * @param conn  The database connection.
+     * @param query The SQL query.
+     * @return The result columns in order.
+     * @throws SQLException If a database access error occurs.
+     */
+    public static List<ColumnInfo> getQueryColumns(Connection conn, String query) throws SQLException {
+        Map<String, List<ColumnInfo>> cache = cacheFor(conn);
+        List<ColumnInfo> columns = cache.get("Q:" + query);
+        if (columns != null) {
+            return columns;
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement(query)) {
+            ResultSetMetaData md = ps.getMetaData();
+            if (md != null) {
+                columns = columnsOf(md);
+            }
+        }
+        if (columns == null) {
+            try (Statement stm = DBUtils.createCursorStatement(conn)) {
+                stm.setMaxRows(1);
+                try (ResultSet resultSet = stm.executeQuery(query)) {
+                    columns = columnsOf(resultSet.getMetaData());
+                }
+            }
+        }
+        columns = Collections.unmodifiableList(columns);
+        cache.put("Q:" + query, columns);
+        return columns;
+    }
+
+    private static List<ColumnInfo> columnsOf(ResultSetMetaData md) throws SQLException {
+        List<ColumnInfo> columns = new ArrayList<>();
+        for (int i = 1; i <= md.getColumnCount(); i++) {
+            columns.add(new ColumnInfo(md.getColumnName(i), md.getColumnType(i), md.getColumnTypeName(i),
+                    md.getPrecision(i), md.getScale(i), md.isNullable(i) != ResultSetMetaData.columnNoNulls));
+        }
+        return columns;
+    }
+
+    /**
+     * Returns the columns of a table from DatabaseMetaData, without touching the table data.
+     *
+     * @param conn   The database connection.
+     * @param schema The schema name, or null for any schema.
+     * @param table  The table name as stored in the data dictionary.
+     * @return The table columns in ordinal order.
+     * @throws SQLException If a database access error occurs.
+     */
+    public static List<ColumnInfo> getTableColumns(Connection conn, String schema, String table) throws SQLException {
+        Map<String, List<ColumnInfo>> cache = cacheFor(conn);
+        String key = "T:" + schema + "." + table;
+        List<ColumnInfo> columns = cache.get(key);
+        if (columns != null) {
+            return columns;
+        }
+
+        columns = new ArrayList<>();
+        DatabaseMetaData md = conn.getMetaData();
+        try (ResultSet resultSet = md.getColumns(conn.getCatalog(), schema, table, null)) {
+            while (resultSet.next()) {
+                columns.add(new ColumnInfo(resultSet.getString("COLUMN_NAME"), resultSet.getInt("DATA_TYPE"), resultSet.getString("TYPE_NAME"),
+                        resultSet.getInt("COLUMN_SIZE"), resultSet.getInt("DECIMAL_DIGITS"), resultSet.getInt("NULLABLE") != DatabaseMetaData.columnNoNulls));
+            }
+        }
+        if (columns.isEmpty()) {
+            log.warn("No columns found for table {}.{}; check the case of the table name", schema, table);
+        }
+        columns = Collections.unmodifiableList(columns);
+        cache.put(key, columns);
+        return columns;
+    }
+
+    /**
+     * Forgets the cached metadata of a connection, e.g. after DDL.
+     *
+     * @param conn The database connection.
+     */
+    public static void invalidate(Connection conn) {
+        synchronized (CACHES) {
+            CACHES.remove(ConnectionPool.physical(conn));
+        }
+    }
+
+    /**
+     * Forgets the cached metadata of every connection if a statement is DDL. Other connections to the same
+     * database see the change too, so their entries are dropped as well.
+     *
+     * @param sql The statement that was run.
+     */
+    public static void invalidateFor(String sql) {
+        if (DDL.matcher(sql).find()) {
+            synchronized (CACHES) {
+                CACHES.clear();
+            }
+        }
+    }
+
+    private static Map<String, List<ColumnInfo>> cacheFor(Connection conn) {
+        synchronized (CACHES) {
+            return CACHES.computeIfAbsent(ConnectionPool.physical(conn), c -> new ConcurrentHashMap<>());
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.dellpoc.utils;
+
+import com.dellpoc.constants.FrameworkConstants;
+import com.dellpoc.pojo.ReconciliationResult;
+import org.apache.spark.sql.Column;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.expressions.Window;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import static org.apache.spark.sql.functions.coalesce;
+import static org.apache.spark.sql.functions.col;
+import static org.apache.spark.sql.functions.count;
+import static org.apache.spark.sql.functions.greatest;
+import static org.apache.spark.sql.functions.least;
+import static org.apache.spark.sql.functions.lit;
+import static org.apache.spark.sql.functions.not;
+import static org.apache.spark.sql.functions.row_number;
+import static org.apache.spark.sql.functions.sum;
+import static org.apache.spark.sql.functions.when;
+
+/**
+ * Diffs two Spark datasets in both directions.
+ * With key columns, both sides are full-outer-joined on the keys (null-safe) and every joined row is classified
+ * as matched, missing, extra or changed. The counts of each category and the number of changed rows per column
+ * come from a single aggregation. Without key columns, identical rows are first counted on each side, so that
+ * duplicates are compared as a multiset. Only when there are differences does a second job collect a sample of
+ * at most sampleLimit rows per category, so the driver never holds more than the sample.
+ */
+public class SparkDiff {
+
+    private static final Logger log = LoggerFactory.getLogger(SparkDiff.class);
+    private static final String KIND = "_kind";
+
+    private final List<String> keyColumns;
+    private final int sampleLimit;
+
+    /**
+     * @param keyColumns  The columns that uniquely identify a row, or an empty list to compare whole rows.
+     * @param sampleLimit The maximum number of sample rows collected per difference category.
+     */
+    public SparkDiff(List<String> keyColumns, int sampleLimit) {
+        this.keyColumns = keyColumns;
+        this.sampleLimit = sampleLimit;
+    }
+
+    public SparkDiff(List<String> keyColumns) {
+        this(keyColumns, FrameworkConstants.DEFAULT_SAMPLE_LIMIT);
+    }
+
+    /**
+     * @param source The expected rows.
+     * @param target The actual rows.
+     * @return The missing, extra and changed rows with per-column mismatch counts and capped samples.
+     */
+    public ReconciliationResult diff(Dataset<Row> source, Dataset<Row> target) {
+        List<String> targetColumns = Arrays.asList(target.columns());
+        List<String> keys = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        List<String> unmatched = new ArrayList<>();
+        for (String keyColumn : keyColumns) {
+            String name = find(source.columns(), keyColumn);
+            if (name == null || find(target.columns(), keyColumn) == null) {
+                throw new IllegalArgumentException("Key column " + keyColumn + " not found in both datasets");
+            }
+            keys.add(name);
+        }
+        for (String column : source.columns()) {
+            if (find(keys.toArray(new String[0]), column) != null) {
+                continue;
+            }
+            if (find(target.columns(), column) == null) {
+                unmatched.add(column);
+            } else {
+                values.add(column);
+            }
+        }
+        if (!unmatched.isEmpty()) {
+            log.warn("Columns {} are not present in the target of {} and will not be compared", unmatched, targetColumns);
+        }
+
+        ReconciliationResult result = keys.isEmpty() ? diffRows(source, target, values) : diffByKey(source, target, keys, values);
+        log.info("Spark diff finished: {}", result);
+        return result;
+    }
+
+    private ReconciliationResult diffByKey(Dataset<Row> source, Dataset<Row> target, List<String> keys, List<String> values) {
+        Dataset<Row> left = source.select(side(keys, values, "k", "s", "_s"));
+        Dataset<Row> right = target.select(side(keys, values, "tk", "t", "_t"));
+        Column on = null;
+        for (int i = 0; i < keys.size(); i++) {
+            Column c = col("k" + i).eqNullSafe(col("tk" + i));
+            on = on == null ? c : on.and(c);
+        }
+
+        Column inSource = col("_s").isNotNull();
+        Column inTarget = col("_t").isNotNull();
+        Column both = inSource.and(inTarget);
+        Column[] differs = new Column[values.size()];
+        Column anyDiffers = lit(false);
+        for (int j = 0; j < differs.length; j++) {
+            differs[j] = not(col("s" + j).eqNullSafe(col("t" + j)));
+            anyDiffers = anyDiffers.or(differs[j]);
+        }
+        Dataset<Row> classified = left.join(right, on, "full_outer")
+                .withColumn(KIND, when(not(inTarget), "missing").when(not(inSource), "extra").when(anyDiffers, "changed"));
+
+        Column[] aggregates = new Column[4 + values.size()];
+        aggregates[0] = count(when(col(KIND).isNull(), 1));
+        aggregates[1] = count(when(col(KIND).equalTo("missing"), 1));
+        aggregates[2] = count(when(col(KIND).equalTo("extra"), 1));
+        aggregates[3] = count(when(col(KIND).equalTo("changed"), 1));
+        for (int j = 0; j < values.size(); j++) {
+            aggregates[4 + j] = count(when(both.and(differs[j]), 1));
+        }
+        Row counts = classified.agg(aggregates[0], Arrays.copyOfRange(aggregates, 1, aggregates.length)).first();
+
+        ReconciliationResult result = new ReconciliationResult(sampleLimit);
+        result.addMatchedRows(counts.getLong(0));
+        result.addDifferenceCounts(counts.getLong(1), counts.getLong(2), counts.getLong(3));
+        for (int j = 0; j < values.size(); j++) {
+            if (counts.getLong(4 + j) > 0) {
+                result.addColumnMismatches(values.get(j), counts.getLong(4 + j));
+            }
+        }
+        if (result.isMatch()) {
+            return result;
+        }
+
+        Column[] order = new Column[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            order[i] = coalesce(col("k" + i), col("tk" + i));
+        }
+        for (Row row : sample(classified.filter(col(KIND).isNotNull()), order)) {
+            String kind = row.getAs(KIND);
+            boolean extra = kind.equals("extra");
+            StringBuilder sb = new StringBuilder("key=").append(Arrays.toString(fields(row, extra ? "tk" : "k", keys.size())));
+            if (kind.equals("changed")) {
+                for (int j = 0; j < values.size(); j++) {
+                    Object s = row.getAs("s" + j);
+                    Object t = row.getAs("t" + j);
+                    if (!Objects.equals(s, t)) {
+                        sb.append(' ').append(values.get(j)).append(": ").append(s).append(" -> ").append(t);
+                    }
+                }
+            } else {
+                appendRow(sb.append(' '), values, fields(row, extra ? "t" : "s", values.size()));
+            }
+            result.addSample(kind, sb.toString());
+        }
+        return result;
+    }
+
+    private ReconciliationResult diffRows(Dataset<Row> source, Dataset<Row> target, List<String> columns) {
+        Dataset<Row> left = source.select(side(new ArrayList<>(), columns, "", "s", null)).groupBy(names("s", columns.size()))
+                .agg(count(lit(1)).as("_sn"));
+        Dataset<Row> right = target.select(side(new ArrayList<>(), columns, "", "t", null)).groupBy(names("t", columns.size()))
+                .agg(count(lit(1)).as("_tn"));
+        Column on = lit(true);
+        for (int j = 0; j < columns.size(); j++) {
+            on = on.and(col("s" + j).eqNullSafe(col("t" + j)));
+        }
+
+        Column sourceCount = coalesce(col("_sn"), lit(0L));
+        Column targetCount = coalesce(col("_tn"), lit(0L));
+        Dataset<Row> classified = left.join(right, on, "full_outer")
+                .withColumn(KIND, when(sourceCount.gt(targetCount), "missing").when(targetCount.gt(sourceCount), "extra"));
+        Row counts = classified.agg(
+                coalesce(sum(least(sourceCount, targetCount)), lit(0L)),
+                coalesce(sum(greatest(sourceCount.minus(targetCount), lit(0L))), lit(0L)),
+                coalesce(sum(greatest(targetCount.minus(sourceCount), lit(0L))), lit(0L))).first();
+
+        ReconciliationResult result = new ReconciliationResult(sampleLimit);
+        result.addMatchedRows(counts.getLong(0));
+        result.addDifferenceCounts(counts.getLong(1), counts.getLong(2), 0);
+        if (result.isMatch()) {
+            return result;
+        }
+
+        Column[] order = new Column[columns.size()];
+        for (int j = 0; j < columns.size(); j++) {
+            order[j] = coalesce(col("s" + j), col("t" + j));
+        }
+        for (Row row : sample(classified.filter(col(KIND).isNotNull()), order)) {
+            String kind = row.getAs(KIND);
+            boolean extra = kind.equals("extra");
+            long times = Math.abs((row.isNullAt(row.fieldIndex("_sn")) ? 0L : row.<Long>getAs("_sn"))
+                    - (row.isNullAt(row.fieldIndex("_tn")) ? 0L : row.<Long>getAs("_tn")));
+            StringBuilder sb = appendRow(new StringBuilder(), columns, fields(row, extra ? "t" : "s", columns.size()));
+            result.addSample(kind, times > 1 ? sb.append(" x").append(times).toString() : sb.toString());
+        }
+        return result;
+    }
+
+    /**
+     * Collects at most sampleLimit rows of each difference kind, in key order.
+     */
+    private List<Row> sample(Dataset<Row> differences, Column[] order) {
+        return differences.withColumn("_n", row_number().over(Window.partitionBy(col(KIND)).orderBy(order)))
+                .filter(col("_n").leq(sampleLimit))
+                .collectAsList();
+    }
+
+    private static Column[] side(List<String> keys, List<String> values, String keyPrefix, String valuePrefix, String marker) {
+        List<Column> columns = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            columns.add(column(keys.get(i)).as(keyPrefix + i));
+        }
+        for (int j = 0; j < values.size(); j++) {
+            columns.add(column(values.get(j)).as(valuePrefix + j));
+        }
+        if (marker != null) {
+            columns.add(lit(true).as(marker));
+        }
+        return columns.toArray(new Column[0]);
+    }
+
+    private static Column[] names(String prefix, int count) {
+        Column[] columns = new Column[count];
+        for (int i = 0; i < count; i++) {
+            columns[i] = col(prefix + i);
+        }
+        return columns;
+    }
+
+    private static Object[] fields(Row row, String prefix, int count) {
+        Object[] fields = new Object[count];
+        for (int i = 0; i < count; i++) {
+            fields[i] = row.getAs(prefix + i);
+        }
+        return fields;
+    }
+
+    private static StringBuilder appendRow(StringBuilder sb, List<String> columns, Object[] fields) {
+        sb.append("row={");
+        for (int j = 0; j < columns.size(); j++) {
+            if (j > 0) {
+                sb.append(", ");
+            }
+            sb.append(columns.get(j)).append('=').append(fields[j]);
+        }
+        return sb.append('}');
+    }
+
+    /**
+     * Quotes a column name so that dots and spaces in CSV headers are not parsed as expressions.
+     */
+    private static Column column(String name) {
+        return col("`" + name.replace("`", "``") + "`");
+    }
+
+    private static String find(String[] columns, String name) {
+        for (String column : columns) {
+            if (column.equalsIgnoreCase(name)) {
+                return column;
+            }
+        }
+        return null;
+    }
+}
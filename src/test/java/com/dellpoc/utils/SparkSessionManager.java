@@ -0,0 +1,119 @@
+package com.dellpoc.utils;
+
+import com.dellpoc.constants.FrameworkConstants;
+import org.apache.spark.sql.SparkSession;
+import org.apache.spark.storage.StorageLevel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+
+/**
+ * One SparkSession for the whole test JVM, created on first use and stopped at the end of the run.
+ * The master is -Dspark.master, default local[*], so local runs use every core. Adaptive query execution
+ * is on, so shuffles are coalesced to the size of the data. The initial shuffle partition count is the
+ * default parallelism instead of 200, and can be resized to the input with {@link #sizeShufflePartitions}.
+ * The Spark UI is off unless -Dspark.ui.enabled=true.
+ */
+public class SparkSessionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(SparkSessionManager.class);
+    private static SparkSession session;
+    private static boolean shutdownHookAdded;
+
+    /**
+     * @return The shared session, created on first use.
+     */
+    public static synchronized SparkSession getSession() {
+        if (session == null || session.sparkContext().isStopped()) {
+            long start = System.nanoTime();
+            session = SparkSession.builder()
+                    .appName("ETL Testing")
+                    .master(System.getProperty("spark.master", "local[*]"))
+                    .config("spark.ui.enabled", System.getProperty("spark.ui.enabled", "false"))
+                    .config("spark.sql.adaptive.enabled", "true")
+                    .config("spark.sql.adaptive.coalescePartitions.enabled", "true")
+                    .config("spark.sql.adaptive.advisoryPartitionSizeInBytes", String.valueOf(FrameworkConstants.SPARK_PARTITION_BYTES))
+                    .getOrCreate();
+            int parallelism = session.sparkContext().defaultParallelism();
+            session.conf().set("spark.sql.shuffle.partitions", String.valueOf(parallelism));
+            log.info("Started Spark session on {} with parallelism {} in {} ms", session.sparkContext().master(), parallelism,
+                    (System.nanoTime() - start) / 1_000_000);
+            if (!shutdownHookAdded) {
+                Runtime.getRuntime().addShutdownHook(new Thread(SparkSessionManager::stop, "spark-shutdown"));
+                shutdownHookAdded = true;
+            }
+        }
+        return session;
+    }
+
+    /**
+     * Sets the shuffle partition count from the size of local input files or directories, at one partition
+     * per {@link FrameworkConstants#SPARK_PARTITION_BYTES}, between the default parallelism and
+     * {@link FrameworkConstants#SPARK_MAX_SHUFFLE_PARTITIONS}. Paths that are not local are ignored.
+     *
+     * @param paths The input paths.
+     * @return The shuffle partition count.
+     */
+    public static int sizeShufflePartitions(String... paths) {
+        SparkSession spark = getSession();
+        long bytes = 0;
+        for (String path : paths) {
+            bytes += localSize(path);
+        }
+        int parallelism = spark.sparkContext().defaultParallelism();
+        long byInput = (bytes + FrameworkConstants.SPARK_PARTITION_BYTES - 1) / FrameworkConstants.SPARK_PARTITION_BYTES;
+        int partitions = (int) Math.min(FrameworkConstants.SPARK_MAX_SHUFFLE_PARTITIONS, Math.max(parallelism, byInput));
+        spark.conf().set("spark.sql.shuffle.partitions", String.valueOf(partitions));
+        log.info("Using {} shuffle partitions for {} bytes of input", partitions, bytes);
+        return partitions;
+    }
+
+    /**
+     * @return The storage level for datasets that several steps reuse: -Dspark.storageLevel, default MEMORY_AND_DISK,
+     * so partitions that do not fit in memory spill to local disk instead of being recomputed from the source.
+     */
+    public static StorageLevel getStorageLevel() {
+        return StorageLevel.fromString(System.getProperty("spark.storageLevel", "MEMORY_AND_DISK"));
+    }
+
+    /**
+     * Stops the shared session, if one was started.
+     */
+    public static synchronized void stop() {
+        if (session != null) {
+            session.stop();
+            session = null;
+            log.info("Stopped Spark session");
+        }
+    }
+
+    private static long localSize(String path) {
+        Path file;
+        try {
+            file = Paths.get(path);
+        } catch (RuntimeException e) {
+            return 0;
+        }
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.walk(file)) {
+            return files.filter(Files::isRegularFile).mapToLong(f -> {
+                try {
+                    return Files.size(f);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).sum();
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Could not size Spark input {}: {}", path, e.getMessage());
+            return 0;
+        }
+    }
+}
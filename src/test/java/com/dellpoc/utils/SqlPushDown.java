@@ -0,0 +1,71 @@
+package com.dellpoc.utils;
+
+import com.dellpoc.enums.DatabaseDialect;
+
+import java.util.List;
+
+/**
+ * Generates aggregate SQL so that count, null and duplicate checks run inside the database
+ * and only the aggregate crosses the wire.
+ */
+public class SqlPushDown {
+
+    /**
+     * @param table  The table name.
+     * @param filter An optional WHERE condition, or null.
+     * @return SELECT COUNT(*) for the table.
+     */
+    public static String countSql(String table, String filter) {
+        return "SELECT COUNT(*) FROM " + table + where(filter);
+    }
+
+    /**
+     * Builds one SUM(CASE WHEN col IS NULL ...) per column, returned in column order.
+     *
+     * @param table   The table name.
+     * @param columns The columns to count nulls in.
+     * @param filter  An optional WHERE condition, or null.
+     * @return The null count query.
+     * @throws IllegalArgumentException If no columns are given.
+     */
+    public static String nullCountSql(String table, List<String> columns, String filter) {
+        requireColumns(columns, "null check");
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("SUM(CASE WHEN ").append(columns.get(i)).append(" IS NULL THEN 1 ELSE 0 END)");
+        }
+        return sql.append(" FROM ").append(table).append(where(filter)).toString();
+    }
+
+    /**
+     * Builds a GROUP BY ... HAVING COUNT(*) > 1 query returning at most maxRows duplicate keys.
+     *
+     * @param dialect    The database dialect.
+     * @param table      The table name.
+     * @param keyColumns The columns that together must be unique.
+     * @param filter     An optional WHERE condition, or null.
+     * @param maxRows    The maximum number of duplicate keys to return.
+     * @return The duplicate key query; the last column is the duplicate count.
+     * @throws IllegalArgumentException If no key columns are given.
+     */
+    public static String duplicateSql(DatabaseDialect dialect, String table, List<String> keyColumns, String filter, int maxRows) {
+        requireColumns(keyColumns, "duplicate check");
+        String keys = String.join(", ", keyColumns);
+        String sql = "SELECT " + keys + ", COUNT(*) FROM " + table + where(filter)
+                + " GROUP BY " + keys + " HAVING COUNT(*) > 1";
+        return dialect.limit(sql, maxRows);
+    }
+
+    private static void requireColumns(List<String> columns, String check) {
+        if (columns == null || columns.isEmpty()) {
+            throw new IllegalArgumentException("At least one column is required for the " + check);
+        }
+    }
+
+    private static String where(String filter) {
+        return filter == null || filter.trim().isEmpty() ? "" : " WHERE " + filter;
+    }
+}
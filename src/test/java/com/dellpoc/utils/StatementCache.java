@@ -0,0 +1,149 @@
+package com.dellpoc.utils;
+
+import com.dellpoc.constants.FrameworkConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Per-connection LRU cache of PreparedStatements keyed by SQL text.
+ * Statements are cached against the physical connection, so they survive a pooled connection
+ * being returned and borrowed again. Evicted statements are closed.
+ */
+public class StatementCache {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementCache.class);
+    private static final Map<Connection, Map<String, PreparedStatement>> CACHES = new WeakHashMap<>();
+    private static final Map<PreparedStatement, int[]> NULL_TYPES = new WeakHashMap<>();
+
+    /**
+     * Returns a cached PreparedStatement for the SQL, preparing it on a miss.
+     * The caller must not close the returned statement.
+     *
+     * @param conn The database connection.
+     * @param sql  The parameterized SQL.
+     * @return The prepared statement with its parameters cleared.
+     * @throws SQLException If the statement cannot be prepared.
+     */
+    public static PreparedStatement prepare(Connection conn, String sql) throws SQLException {
+        Map<String, PreparedStatement> cache = cacheFor(ConnectionPool.physical(conn));
+        synchronized (cache) {
+            PreparedStatement ps = cache.get(sql);
+            if (ps == null || ps.isClosed()) {
+                ps = QueryMetrics.instrument(conn.prepareStatement(sql), sql);
+                cache.put(sql, ps);
+            } else {
+                ps.clearParameters();
+            }
+            return ps;
+        }
+    }
+
+    /**
+     * Binds values to the statement parameters in order, starting at index 1.
+     * Nulls are bound with the SQL type of their parameter, since drivers such as Oracle's reject an untyped null.
+     *
+     * @param ps     The prepared statement.
+     * @param values The values to bind.
+     * @throws SQLException If a value cannot be bound.
+     */
+    public static void bind(PreparedStatement ps, List<?> values) throws SQLException {
+        int[] nullTypes = null;
+        for (int i = 0; i < values.size(); i++) {
+            Object value = values.get(i);
+            if (value == null) {
+                if (nullTypes == null) {
+                    nullTypes = nullTypes(ps, values.size());
+                }
+                ps.setNull(i + 1, nullTypes[i]);
+            } else {
+                ps.setObject(i + 1, value);
+            }
+        }
+    }
+
+    /**
+     * Returns the SQL type of each parameter, remembered per statement so the metadata is read once per
+     * statement rather than once per row. Parameters whose type the driver does not report are VARCHAR.
+     */
+    private static int[] nullTypes(PreparedStatement ps, int count) {
+        synchronized (NULL_TYPES) {
+            int[] types = NULL_TYPES.get(ps);
+            if (types != null && types.length >= count) {
+                return types;
+            }
+        }
+        int[] types = new int[count];
+        Arrays.fill(types, Types.VARCHAR);
+        try {
+            ParameterMetaData md = ps.getParameterMetaData();
+            for (int i = 0; i < Math.min(count, md.getParameterCount()); i++) {
+                try {
+                    int type = md.getParameterType(i + 1);
+                    if (type != Types.NULL) {
+                        types[i] = type;
+                    }
+                } catch (SQLException | RuntimeException e) {
+                    log.debug("Type of parameter {} not available, binding nulls as VARCHAR: {}", i + 1, e.getMessage());
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            log.debug("Parameter types not available, binding nulls as VARCHAR: {}", e.getMessage());
+        }
+        synchronized (NULL_TYPES) {
+            NULL_TYPES.put(ps, types);
+        }
+        return types;
+    }
+
+    /**
+     * Closes and forgets every cached statement for a connection.
+     *
+     * @param conn The database connection.
+     */
+    public static void clear(Connection conn) {
+        Map<String, PreparedStatement> cache;
+        synchronized (CACHES) {
+            cache = CACHES.remove(ConnectionPool.physical(conn));
+        }
+        if (cache != null) {
+            synchronized (cache) {
+                cache.values().forEach(StatementCache::closeQuietly);
+                cache.clear();
+            }
+        }
+    }
+
+    private static Map<String, PreparedStatement> cacheFor(Connection conn) {
+        synchronized (CACHES) {
+            return CACHES.computeIfAbsent(conn, c -> new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() > FrameworkConstants.STATEMENT_CACHE_SIZE) {
+                        closeQuietly(eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            });
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement ps) {
+        try {
+            ps.close();
+        } catch (SQLException e) {
+            log.warn("Error closing cached statement: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.dellpoc.utils;
+
+import com.dellpoc.constants.FrameworkConstants;
+import com.dellpoc.enums.DatabaseDialect;
+import com.dellpoc.pojo.ColumnInfo;
+import com.dellpoc.pojo.ComparisonRules;
+import com.dellpoc.pojo.ReconciliationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reconciles a source and a target query by walking both cursors once in key order (sort-merge).
+ * Only the current row of each side is held in memory, so the cost is independent of table size
+ * and the row order returned by the caller's queries does not matter. Values are compared through a
+ * {@link ValueComparator}, so numbers, timestamps and strings from different databases match under the
+ * configured {@link ComparisonRules}.
+ */
+public class StreamingReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamingReconciler.class);
+
+    private final List<String> keyColumns;
+    private final int sampleLimit;
+    private final ComparisonRules rules;
+
+    /**
+     * @param keyColumns  The columns that uniquely identify a row on both sides.
+     * @param sampleLimit The maximum number of sample rows kept per difference category.
+     * @param rules       How values are normalized before they are compared.
+     */
+    public StreamingReconciler(List<String> keyColumns, int sampleLimit, ComparisonRules rules) {
+        if (keyColumns == null || keyColumns.isEmpty()) {
+            throw new IllegalArgumentException("At least one key column is required for reconciliation");
+        }
+        this.keyColumns = keyColumns;
+        this.sampleLimit = sampleLimit;
+        this.rules = rules;
+    }
+
+    public StreamingReconciler(List<String> keyColumns, int sampleLimit) {
+        this(keyColumns, sampleLimit, ComparisonRules.defaults());
+    }
+
+    public StreamingReconciler(List<String> keyColumns) {
+        this(keyColumns, FrameworkConstants.DEFAULT_SAMPLE_LIMIT);
+    }
+
+    /**
+     * Runs both queries ordered by the key columns and reconciles them. Character keys are sorted with a binary
+     * collation on each side, so both databases return them in the order the merge compares them.
+     *
+     * @param sourceConn  The source database connection.
+     * @param sourceQuery The SQL query for the source table.
+     * @param targetConn  The target database connection.
+     * @param targetQuery The SQL query for the target table.
+     * @return The structured diff between source and target.
+     * @throws SQLException If a database access error occurs.
+     */
+    public ReconciliationResult reconcile(Connection sourceConn, String sourceQuery, Connection targetConn, String targetQuery) throws SQLException {
+        try (Connection second = ConnectionPool.borrowIfShared(sourceConn, targetConn);
+             Statement sourceStm = DBUtils.createStreamingStatement(sourceConn);
+             Statement targetStm = DBUtils.createStreamingStatement(second == null ? targetConn : second);
+             ResultSet source = sourceStm.executeQuery(orderByKey(sourceConn, sourceQuery));
+             ResultSet target = targetStm.executeQuery(orderByKey(targetConn, targetQuery))) {
+            return reconcile(source, target);
+        }
+    }
+
+    /**
+     * Reconciles two result sets that are already ordered by the key columns.
+     *
+     * @param source The source result set.
+     * @param target The target result set.
+     * @return The structured diff between source and target.
+     * @throws SQLException If a database access error occurs or a side is not in key order.
+     */
+    public ReconciliationResult reconcile(ResultSet source, ResultSet target) throws SQLException {
+        ReconciliationResult result = new ReconciliationResult(sampleLimit);
+        ValueComparator comparator = new ValueComparator(source.getMetaData(), target.getMetaData(), rules);
+        RowCursor src = new RowCursor("source", source, keyColumns, comparator);
+        RowCursor tgt = new RowCursor("target", target, keyColumns, comparator);
+
+        boolean hasSource = src.next();
+        boolean hasTarget = tgt.next();
+        while (hasSource || hasTarget) {
+            int cmp;
+            if (!hasSource) {
+                cmp = 1;
+            } else if (!hasTarget) {
+                cmp = -1;
+            } else {
+                cmp = compareKeys(src.key, tgt.key);
+            }
+
+            if (cmp < 0) {
+                result.addSourceRow();
+                result.addMissing(src.describe());
+                hasSource = src.next();
+            } else if (cmp > 0) {
+                result.addTargetRow();
+                result.addExtra(tgt.describe());
+                hasTarget = tgt.next();
+            } else {
+                result.addSourceRow();
+                result.addTargetRow();
+                String diff = diffRow(comparator, src, tgt);
+                if (diff == null) {
+                    result.addMatched();
+                } else {
+                    result.addChanged(diff);
+                }
+                hasSource = src.next();
+                hasTarget = tgt.next();
+            }
+        }
+
+        log.info("Reconciliation finished: {}", result);
+        return result;
+    }
+
+    /**
+     * Wraps a query so that the database returns its rows ordered by the key columns.
+     *
+     * @param query The SQL query to wrap.
+     * @return The ordered SQL query.
+     */
+    public String orderByKey(String query) {
+        return "SELECT * FROM (" + query + ") rq ORDER BY " + String.join(", ", keyColumns);
+    }
+
+    /**
+     * Wraps a query so that the database returns its rows ordered by the key columns, sorting character keys
+     * by code point through the connection's binary collation. Other keys keep their natural order.
+     *
+     * @param conn  The connection the query will run on.
+     * @param query The SQL query to wrap.
+     * @return The ordered SQL query.
+     * @throws SQLException If the query columns cannot be described.
+     */
+    public String orderByKey(Connection conn, String query) throws SQLException {
+        DatabaseDialect dialect = DatabaseDialect.fromConnection(conn);
+        if (dialect == DatabaseDialect.GENERIC) {
+            return orderByKey(query);
+        }
+        Map<String, Integer> types = new HashMap<>();
+        for (ColumnInfo column : SchemaCache.getQueryColumns(conn, query)) {
+            types.put(column.getName().toUpperCase(), column.getJdbcType());
+        }
+        List<String> order = new ArrayList<>(keyColumns.size());
+        for (String key : keyColumns) {
+            Integer type = types.get(key.toUpperCase());
+            order.add(type != null && isCharacter(type) ? dialect.binaryOrder(key) : key);
+        }
+        return "SELECT * FROM (" + query + ") rq ORDER BY " + String.join(", ", order);
+    }
+
+    private static boolean isCharacter(int jdbcType) {
+        switch (jdbcType) {
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGNVARCHAR:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static String diffRow(ValueComparator comparator, RowCursor src, RowCursor tgt) {
+        StringBuilder diff = null;
+        for (int i = 0; i < comparator.getColumnCount(); i++) {
+            if (!comparator.equal(i, src.buffer, tgt.buffer)) {
+                if (diff == null) {
+                    diff = new StringBuilder("key=").append(Arrays.toString(src.key));
+                }
+                diff.append(' ').append(comparator.getColumnName(i)).append(": ").append(comparator.format(src.buffer, i))
+                        .append(" -> ").append(comparator.format(tgt.buffer, i));
+            }
+        }
+        return diff == null ? null : diff.toString();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static int compareKeys(Object[] a, Object[] b) {
+        for (int i = 0; i < a.length; i++) {
+            Object x = a[i];
+            Object y = b[i];
+            int cmp;
+            if (x == null || y == null) {
+                cmp = x == null ? (y == null ? 0 : -1) : 1;
+            } else if (x instanceof Number && y instanceof Number) {
+                cmp = toBigDecimal((Number) x).compareTo(toBigDecimal((Number) y));
+            } else if (x instanceof Comparable && x.getClass() == y.getClass()) {
+                cmp = ((Comparable) x).compareTo(y);
+            } else {
+                cmp = x.toString().compareTo(y.toString());
+            }
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return 0;
+    }
+
+    private static BigDecimal toBigDecimal(Number n) {
+        if (n instanceof BigDecimal) {
+            return (BigDecimal) n;
+        }
+        if (n instanceof Double || n instanceof Float) {
+            return BigDecimal.valueOf(n.doubleValue());
+        }
+        return new BigDecimal(n.toString());
+    }
+
+    /**
+     * Forward-only view of one side that keeps just the current row and checks the key order.
+     * The compared values are read into one reused buffer; only the key is allocated per row.
+     */
+    private static class RowCursor {
+        private final String side;
+        private final ResultSet resultSet;
+        private final ValueComparator comparator;
+        private final boolean isSource;
+        private final int[] keyIndexes;
+        private final ValueComparator.RowBuffer buffer;
+        private Object[] key;
+        private Object[] previousKey;
+
+        RowCursor(String side, ResultSet resultSet, List<String> keyColumns, ValueComparator comparator) throws SQLException {
+            this.side = side;
+            this.resultSet = resultSet;
+            this.comparator = comparator;
+            this.isSource = "source".equals(side);
+            ResultSetMetaData md = resultSet.getMetaData();
+            Map<String, Integer> index = new HashMap<>();
+            for (int i = 1; i <= md.getColumnCount(); i++) {
+                index.put(md.getColumnLabel(i).toUpperCase(), i);
+            }
+            keyIndexes = new int[keyColumns.size()];
+            for (int k = 0; k < keyIndexes.length; k++) {
+                Integer i = index.get(keyColumns.get(k).toUpperCase());
+                if (i == null) {
+                    throw new IllegalArgumentException("Key column " + keyColumns.get(k) + " not found in " + side + " result");
+                }
+                keyIndexes[k] = i;
+            }
+            buffer = comparator.newBuffer();
+        }
+
+        boolean next() throws SQLException {
+            if (!resultSet.next()) {
+                return false;
+            }
+            previousKey = key;
+            key = new Object[keyIndexes.length];
+            for (int k = 0; k < keyIndexes.length; k++) {
+                key[k] = resultSet.getObject(keyIndexes[k]);
+            }
+            if (isSource) {
+                comparator.readSource(resultSet, buffer);
+            } else {
+                comparator.readTarget(resultSet, buffer);
+            }
+            if (previousKey != null && compareKeys(previousKey, key) > 0) {
+                throw new SQLException("The " + side + " rows are not in key order at " + Arrays.toString(key)
+                        + "; use a numeric key or a binary collation so both databases sort keys identically");
+            }
+            return true;
+        }
+
+        String describe() {
+            StringBuilder sb = new StringBuilder("key=").append(Arrays.toString(key)).append(" row={");
+            for (int i = 0; i < comparator.getColumnCount(); i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append(comparator.getColumnName(i)).append('=').append(comparator.format(buffer, i));
+            }
+            return sb.append('}').toString();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.dellpoc.utils;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * A result set that times next() and records the totals with {@link QueryMetrics} once the result is
+ * exhausted or closed. Every other method is a plain call to the wrapped result set, so reading columns
+ * costs nothing extra.
+ */
+class TimedResultSet extends DelegatingResultSet {
+
+    private static final int MAX_COLUMN_BYTES = 4000;
+
+    private final String sql;
+    private final long executeNanos;
+    private long firstRowNanos = -1;
+    private long fetchNanos;
+    private long rows;
+    private long rowBytes = -1;
+    private boolean recorded;
+
+    TimedResultSet(ResultSet resultSet, String sql, long executeNanos) {
+        super(resultSet);
+        this.sql = sql;
+        this.executeNanos = executeNanos;
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        if (rowBytes < 0) {
+            rowBytes = estimateRowBytes();
+        }
+        long start = System.nanoTime();
+        boolean hasRow = resultSet.next();
+        long elapsed = System.nanoTime() - start;
+        fetchNanos += elapsed;
+        if (firstRowNanos < 0) {
+            firstRowNanos = executeNanos + elapsed;
+        }
+        if (hasRow) {
+            rows++;
+        } else {
+            finish();
+        }
+        return hasRow;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        finish();
+        resultSet.close();
+    }
+
+    private void finish() {
+        if (!recorded) {
+            recorded = true;
+            QueryMetrics.record(sql, executeNanos, Math.max(0, firstRowNanos), fetchNanos, rows, rows * Math.max(0, rowBytes));
+        }
+    }
+
+    private long estimateRowBytes() {
+        try {
+            ResultSetMetaData md = resultSet.getMetaData();
+            long bytes = 0;
+            for (int i = 1; i <= md.getColumnCount(); i++) {
+                int size = md.getColumnDisplaySize(i);
+                bytes += size <= 0 ? 8 : Math.min(size, MAX_COLUMN_BYTES);
+            }
+            return bytes;
+        } catch (SQLException e) {
+            return 0;
+        }
+    }
+}
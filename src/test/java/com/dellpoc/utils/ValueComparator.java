@@ -0,0 +1,448 @@
+package com.dellpoc.utils;
+
+import com.dellpoc.pojo.ComparisonRules;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Compares rows from two databases column by column after normalizing their types.
+ * Each column pair is mapped once, from both sides' metadata, to the cheapest representation that compares
+ * them correctly: integral numbers are read with getLong, small decimals with getDouble into scaled longs,
+ * and timestamps into epoch seconds plus truncated nanos, all into primitive arrays of a reusable
+ * {@link RowBuffer}. So Oracle NUMBER(10) and Postgres bigint compare as longs, 1.0 equals 1, and a DATE
+ * equals a timestamp at midnight. Wide decimals fall back to BigDecimal and text to String.
+ * Timestamps without a time zone are read as UTC wall-clock time on both sides, so daylight saving
+ * time in the JVM's zone cannot shift them.
+ */
+public class ValueComparator {
+
+    private static final Logger log = LoggerFactory.getLogger(ValueComparator.class);
+    private static final int MAX_EXACT_DOUBLE_DIGITS = 15;
+    private static final int ORACLE_TIMESTAMPTZ = -101;
+    private static final int ORACLE_TIMESTAMPLTZ = -102;
+
+    enum Kind { LONG, SCALED, DOUBLE, DECIMAL, TEMPORAL, STRING, BYTES }
+
+    private final ComparisonRules rules;
+    private final String[] names;
+    private final int[] sourceColumns;
+    private final int[] targetColumns;
+    private final Kind[] kinds;
+    private final double scaleFactor;
+    private final int nanosUnit;
+    private final Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+
+    /**
+     * Pairs the source and target columns by name (case-insensitive) and picks how each pair is compared.
+     * Columns that exist on one side only are logged and not compared.
+     *
+     * @param source The source result metadata.
+     * @param target The target result metadata.
+     * @param rules  The normalization rules.
+     * @throws SQLException If the metadata cannot be read.
+     */
+    public ValueComparator(ResultSetMetaData source, ResultSetMetaData target, ComparisonRules rules) throws SQLException {
+        this.rules = rules;
+        Map<String, Integer> targetIndex = new HashMap<>();
+        for (int i = 1; i <= target.getColumnCount(); i++) {
+            targetIndex.put(target.getColumnLabel(i).toUpperCase(), i);
+        }
+
+        List<Integer> sourceList = new ArrayList<>();
+        List<Integer> targetList = new ArrayList<>();
+        List<String> unmatched = new ArrayList<>();
+        for (int i = 1; i <= source.getColumnCount(); i++) {
+            Integer t = targetIndex.remove(source.getColumnLabel(i).toUpperCase());
+            if (t == null) {
+                unmatched.add(source.getColumnLabel(i));
+            } else {
+                sourceList.add(i);
+                targetList.add(t);
+            }
+        }
+        if (!unmatched.isEmpty() || !targetIndex.isEmpty()) {
+            log.warn("Columns {} (source only) and {} (target only) will not be compared", unmatched, targetIndex.keySet());
+        }
+
+        int n = sourceList.size();
+        names = new String[n];
+        sourceColumns = new int[n];
+        targetColumns = new int[n];
+        kinds = new Kind[n];
+        for (int i = 0; i < n; i++) {
+            sourceColumns[i] = sourceList.get(i);
+            targetColumns[i] = targetList.get(i);
+            names[i] = source.getColumnLabel(sourceColumns[i]);
+            kinds[i] = kindOf(source, sourceColumns[i], target, targetColumns[i]);
+        }
+        scaleFactor = rules.getNumericScale() >= 0 ? Math.pow(10, rules.getNumericScale()) : 1;
+        nanosUnit = (int) Math.pow(10, 9 - rules.getTimestampPrecision());
+    }
+
+    /**
+     * @return The number of columns compared.
+     */
+    public int getColumnCount() {
+        return names.length;
+    }
+
+    public String getColumnName(int column) {
+        return names[column];
+    }
+
+    /**
+     * @return The JDBC index of each compared column in the source result.
+     */
+    public int[] getSourceColumns() {
+        return sourceColumns.clone();
+    }
+
+    /**
+     * @return The JDBC index of each compared column in the target result.
+     */
+    public int[] getTargetColumns() {
+        return targetColumns.clone();
+    }
+
+    public RowBuffer newBuffer() {
+        return new RowBuffer(names.length);
+    }
+
+    /**
+     * Reads the current source row into a buffer.
+     */
+    public void readSource(ResultSet resultSet, RowBuffer buffer) throws SQLException {
+        read(resultSet, sourceColumns, buffer);
+    }
+
+    /**
+     * Reads the current target row into a buffer.
+     */
+    public void readTarget(ResultSet resultSet, RowBuffer buffer) throws SQLException {
+        read(resultSet, targetColumns, buffer);
+    }
+
+    /**
+     * @param column The compared column.
+     * @param a      One row.
+     * @param b      The other row.
+     * @return True if the column values are equal under the rules.
+     */
+    public boolean equal(int column, RowBuffer a, RowBuffer b) {
+        if (a.nulls[column] || b.nulls[column]) {
+            return a.nulls[column] == b.nulls[column];
+        }
+        switch (kinds[column]) {
+            case LONG:
+            case SCALED:
+                return a.longs[column] == b.longs[column];
+            case TEMPORAL:
+                return a.longs[column] == b.longs[column] && a.nanos[column] == b.nanos[column];
+            case DOUBLE:
+                return rules.getNumericScale() >= 0
+                        ? Math.round(a.doubles[column] * scaleFactor) == Math.round(b.doubles[column] * scaleFactor)
+                        : Double.compare(a.doubles[column], b.doubles[column]) == 0;
+            case DECIMAL:
+                BigDecimal x = (BigDecimal) a.objects[column];
+                BigDecimal y = (BigDecimal) b.objects[column];
+                if (rules.getNumericScale() >= 0) {
+                    x = x.setScale(rules.getNumericScale(), RoundingMode.HALF_UP);
+                    y = y.setScale(rules.getNumericScale(), RoundingMode.HALF_UP);
+                }
+                return x.compareTo(y) == 0;
+            case BYTES:
+                return Arrays.equals((byte[]) a.objects[column], (byte[]) b.objects[column]);
+            default:
+                return stringsEqual((String) a.objects[column], (String) b.objects[column]);
+        }
+    }
+
+    /**
+     * @return True if every compared column is equal.
+     */
+    public boolean rowsEqual(RowBuffer a, RowBuffer b) {
+        for (int i = 0; i < names.length; i++) {
+            if (!equal(i, a, b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The normalized value of a column for reports.
+     */
+    public String format(RowBuffer buffer, int column) {
+        if (buffer.nulls[column]) {
+            return "null";
+        }
+        switch (kinds[column]) {
+            case LONG:
+                return Long.toString(buffer.longs[column]);
+            case SCALED:
+                return BigDecimal.valueOf(buffer.longs[column], rules.getNumericScale()).toPlainString();
+            case DOUBLE:
+                return Double.toString(buffer.doubles[column]);
+            case DECIMAL:
+                return ((BigDecimal) buffer.objects[column]).toPlainString();
+            case TEMPORAL:
+                return Instant.ofEpochSecond(buffer.longs[column], buffer.nanos[column]).toString();
+            case BYTES:
+                return "byte[" + ((byte[]) buffer.objects[column]).length + "]";
+            default:
+                return (String) buffer.objects[column];
+        }
+    }
+
+    /**
+     * Renders a column as canonical text, such that two values are {@link #equal} exactly when their
+     * canonical texts are equal. Used where rows are compared as serialized bytes.
+     *
+     * @return The canonical text, or null for NULL.
+     */
+    public String normalize(RowBuffer buffer, int column) {
+        if (buffer.nulls[column]) {
+            return null;
+        }
+        switch (kinds[column]) {
+            case DOUBLE:
+                return rules.getNumericScale() >= 0
+                        ? BigDecimal.valueOf(Math.round(buffer.doubles[column] * scaleFactor), rules.getNumericScale()).toPlainString()
+                        : Double.toString(buffer.doubles[column] == 0 ? 0.0 : buffer.doubles[column]);
+            case DECIMAL:
+                BigDecimal value = (BigDecimal) buffer.objects[column];
+                return rules.getNumericScale() >= 0
+                        ? value.setScale(rules.getNumericScale(), RoundingMode.HALF_UP).toPlainString()
+                        : value.signum() == 0 ? "0" : value.stripTrailingZeros().toPlainString();
+            case BYTES:
+                StringBuilder hex = new StringBuilder();
+                for (byte b : (byte[]) buffer.objects[column]) {
+                    hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+                }
+                return hex.toString();
+            case STRING:
+                return normalizeString((String) buffer.objects[column], rules);
+            default:
+                return format(buffer, column);
+        }
+    }
+
+    /**
+     * Applies the trim, case and empty-string rules to a text value.
+     *
+     * @return The canonical text, or null for NULL.
+     */
+    public static String normalizeString(String value, ComparisonRules rules) {
+        if (value == null) {
+            return null;
+        }
+        String s = rules.isTrimStrings() ? value.trim() : value;
+        if (rules.isEmptyStringAsNull() && s.isEmpty()) {
+            return null;
+        }
+        return rules.isIgnoreCase() ? s.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT) : s;
+    }
+
+    private void read(ResultSet resultSet, int[] columns, RowBuffer buffer) throws SQLException {
+        for (int i = 0; i < columns.length; i++) {
+            int c = columns[i];
+            switch (kinds[i]) {
+                case LONG:
+                    buffer.longs[i] = resultSet.getLong(c);
+                    buffer.nulls[i] = resultSet.wasNull();
+                    break;
+                case SCALED:
+                    buffer.longs[i] = Math.round(resultSet.getDouble(c) * scaleFactor);
+                    buffer.nulls[i] = resultSet.wasNull();
+                    break;
+                case DOUBLE:
+                    buffer.doubles[i] = resultSet.getDouble(c);
+                    buffer.nulls[i] = resultSet.wasNull();
+                    break;
+                case DECIMAL:
+                    buffer.objects[i] = resultSet.getBigDecimal(c);
+                    buffer.nulls[i] = buffer.objects[i] == null;
+                    break;
+                case TEMPORAL:
+                    Timestamp ts = resultSet.getTimestamp(c, utc);
+                    buffer.nulls[i] = ts == null;
+                    if (ts != null) {
+                        buffer.longs[i] = Math.floorDiv(ts.getTime(), 1000L);
+                        buffer.nanos[i] = ts.getNanos() - ts.getNanos() % nanosUnit;
+                    }
+                    break;
+                case BYTES:
+                    buffer.objects[i] = resultSet.getBytes(c);
+                    buffer.nulls[i] = buffer.objects[i] == null;
+                    break;
+                default:
+                    String s = resultSet.getString(c);
+                    buffer.objects[i] = s;
+                    buffer.nulls[i] = s == null || (rules.isEmptyStringAsNull() && isEmpty(s));
+            }
+        }
+    }
+
+    private boolean isEmpty(String s) {
+        if (!rules.isTrimStrings()) {
+            return s.isEmpty();
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares two strings under the trim and case rules without creating trimmed or case-folded copies.
+     */
+    private boolean stringsEqual(String a, String b) {
+        int aStart = 0;
+        int aEnd = a.length();
+        int bStart = 0;
+        int bEnd = b.length();
+        if (rules.isTrimStrings()) {
+            while (aStart < aEnd && a.charAt(aStart) <= ' ') {
+                aStart++;
+            }
+            while (aEnd > aStart && a.charAt(aEnd - 1) <= ' ') {
+                aEnd--;
+            }
+            while (bStart < bEnd && b.charAt(bStart) <= ' ') {
+                bStart++;
+            }
+            while (bEnd > bStart && b.charAt(bEnd - 1) <= ' ') {
+                bEnd--;
+            }
+        }
+        int length = aEnd - aStart;
+        return length == bEnd - bStart && a.regionMatches(rules.isIgnoreCase(), aStart, b, bStart, length);
+    }
+
+    private Kind kindOf(ResultSetMetaData source, int s, ResultSetMetaData target, int t) throws SQLException {
+        int sType = source.getColumnType(s);
+        int tType = target.getColumnType(t);
+        if (isTemporal(sType) && isTemporal(tType)) {
+            return Kind.TEMPORAL;
+        }
+        if (isBinary(sType) && isBinary(tType)) {
+            return Kind.BYTES;
+        }
+        if (!isNumeric(sType) || !isNumeric(tType)) {
+            return Kind.STRING;
+        }
+        if (isFloating(sType) || isFloating(tType)) {
+            return Kind.DOUBLE;
+        }
+        if (isIntegral(sType, source.getPrecision(s), source.getScale(s)) && isIntegral(tType, target.getPrecision(t), target.getScale(t))) {
+            return Kind.LONG;
+        }
+        if (rules.getNumericScale() >= 0
+                && fitsDouble(source.getPrecision(s), source.getScale(s)) && fitsDouble(target.getPrecision(t), target.getScale(t))) {
+            return Kind.SCALED;
+        }
+        return Kind.DECIMAL;
+    }
+
+    /**
+     * True if every value of a DECIMAL(precision, scale) column, rounded to the comparison scale, is exact as a double.
+     */
+    private boolean fitsDouble(int precision, int scale) {
+        return precision > 0 && scale >= 0 && precision - scale + rules.getNumericScale() <= MAX_EXACT_DOUBLE_DIGITS
+                && precision <= MAX_EXACT_DOUBLE_DIGITS;
+    }
+
+    private static boolean isIntegral(int type, int precision, int scale) {
+        switch (type) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                return true;
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                return scale == 0 && precision > 0 && precision <= 18;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isNumeric(int type) {
+        switch (type) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+            case Types.FLOAT:
+            case Types.REAL:
+            case Types.DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isFloating(int type) {
+        return type == Types.FLOAT || type == Types.REAL || type == Types.DOUBLE;
+    }
+
+    private static boolean isTemporal(int type) {
+        switch (type) {
+            case Types.DATE:
+            case Types.TIME:
+            case Types.TIMESTAMP:
+            case Types.TIME_WITH_TIMEZONE:
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+            case ORACLE_TIMESTAMPTZ:
+            case ORACLE_TIMESTAMPLTZ:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isBinary(int type) {
+        return type == Types.BINARY || type == Types.VARBINARY || type == Types.LONGVARBINARY || type == Types.BLOB;
+    }
+
+    /**
+     * One row of normalized values, reused for every row read so that comparing allocates only for
+     * strings, wide decimals and timestamps.
+     */
+    public static class RowBuffer {
+        private final long[] longs;
+        private final int[] nanos;
+        private final double[] doubles;
+        private final Object[] objects;
+        private final boolean[] nulls;
+
+        RowBuffer(int columns) {
+            longs = new long[columns];
+            nanos = new int[columns];
+            doubles = new double[columns];
+            objects = new Object[columns];
+            nulls = new boolean[columns];
+        }
+    }
+}
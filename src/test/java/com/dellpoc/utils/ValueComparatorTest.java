@@ -0,0 +1,155 @@
+package com.dellpoc.utils;
+
+import com.dellpoc.pojo.ComparisonRules;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares single-column rows read from fake result sets under the scale, trim, case, empty-string and
+ * timestamp-precision rules.
+ */
+class ValueComparatorTest {
+
+    private static final ComparisonRules EXACT = ComparisonRules.defaults();
+
+    @Test
+    void integralNumbersCompareAcrossTypes() throws SQLException {
+        Column number = new Column(Types.NUMERIC, 10, 0);
+        Column bigint = new Column(Types.BIGINT, 19, 0);
+
+        assertTrue(equal(EXACT, number, new BigDecimal("42"), bigint, 42L));
+        assertFalse(equal(EXACT, number, new BigDecimal("42"), bigint, 43L));
+    }
+
+    @Test
+    void decimalsAreRoundedToTheNumericScale() throws SQLException {
+        ComparisonRules twoPlaces = rules(2, false, false, 6, false);
+        Column narrow = new Column(Types.DECIMAL, 10, 4);
+        Column wide = new Column(Types.DECIMAL, 38, 10);
+
+        assertTrue(equal(twoPlaces, narrow, new BigDecimal("1.2340"), narrow, new BigDecimal("1.2349")));
+        assertTrue(equal(twoPlaces, wide, new BigDecimal("1.2340"), wide, new BigDecimal("1.2349")));
+        assertFalse(equal(twoPlaces, narrow, new BigDecimal("1.2340"), narrow, new BigDecimal("1.2350")));
+        assertFalse(equal(EXACT, wide, new BigDecimal("1.2340"), wide, new BigDecimal("1.2349")));
+        assertTrue(equal(EXACT, wide, new BigDecimal("1.0"), new Column(Types.INTEGER, 10, 0), 1));
+    }
+
+    @Test
+    void stringsAreTrimmedAndCaseFoldedOnlyWhenAsked() throws SQLException {
+        Column text = new Column(Types.VARCHAR, 20, 0);
+
+        assertFalse(equal(EXACT, text, "abc  ", text, "abc"));
+        assertTrue(equal(rules(-1, true, false, 6, false), text, "abc  ", text, " abc"));
+        assertFalse(equal(EXACT, text, "ABC", text, "abc"));
+        assertTrue(equal(rules(-1, false, true, 6, false), text, "ABC", text, "abc"));
+        assertEquals("abc", ValueComparator.normalizeString(" ABC ", rules(-1, true, true, 6, false)));
+    }
+
+    @Test
+    void emptyStringsEqualNullOnlyWhenAsked() throws SQLException {
+        Column text = new Column(Types.VARCHAR, 20, 0);
+
+        assertFalse(equal(EXACT, text, "", text, null));
+        assertTrue(equal(rules(-1, false, false, 6, true), text, "", text, null));
+        assertTrue(equal(rules(-1, true, false, 6, true), text, "   ", text, null));
+        assertEquals("", ValueComparator.normalizeString("", EXACT));
+    }
+
+    @Test
+    void timestampsAreTruncatedToThePrecision() throws SQLException {
+        Column timestamp = new Column(Types.TIMESTAMP, 29, 9);
+        Timestamp nanos = timestamp("2024-03-31 01:30:00.123456789");
+        Timestamp micros = timestamp("2024-03-31 01:30:00.123456");
+
+        assertTrue(equal(EXACT, timestamp, nanos, timestamp, micros));
+        assertFalse(equal(rules(-1, false, false, 9, false), timestamp, nanos, timestamp, micros));
+        assertTrue(equal(rules(-1, false, false, 0, false), timestamp, nanos, timestamp, timestamp("2024-03-31 01:30:00.9")));
+        assertTrue(equal(EXACT, new Column(Types.DATE, 10, 0), timestamp("2024-03-31 00:00:00"), timestamp,
+                timestamp("2024-03-31 00:00:00")));
+    }
+
+    private static ComparisonRules rules(int scale, boolean trim, boolean ignoreCase, int precision, boolean emptyAsNull) {
+        return new ComparisonRules(scale, trim, ignoreCase, precision, emptyAsNull);
+    }
+
+    private static Timestamp timestamp(String value) {
+        return Timestamp.valueOf(value);
+    }
+
+    private static boolean equal(ComparisonRules rules, Column sourceColumn, Object sourceValue, Column targetColumn, Object targetValue)
+            throws SQLException {
+        ValueComparator comparator = new ValueComparator(sourceColumn.metaData(), targetColumn.metaData(), rules);
+        ValueComparator.RowBuffer source = comparator.newBuffer();
+        ValueComparator.RowBuffer target = comparator.newBuffer();
+        comparator.readSource(row(sourceValue), source);
+        comparator.readTarget(row(targetValue), target);
+        return comparator.equal(0, source, target);
+    }
+
+    /**
+     * A result set positioned on one row with a single value, read through the getters ValueComparator uses.
+     */
+    private static ResultSet row(Object value) {
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "wasNull":
+                    return value == null;
+                case "getLong":
+                    return value == null ? 0L : ((Number) value).longValue();
+                case "getDouble":
+                    return value == null ? 0.0 : ((Number) value).doubleValue();
+                case "getBigDecimal":
+                    return value == null ? null : new BigDecimal(value.toString());
+                case "getTimestamp":
+                    return value;
+                case "getString":
+                    return value == null ? null : value.toString();
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private static class Column {
+        private final int type;
+        private final int precision;
+        private final int scale;
+
+        Column(int type, int precision, int scale) {
+            this.type = type;
+            this.precision = precision;
+            this.scale = scale;
+        }
+
+        ResultSetMetaData metaData() {
+            return (ResultSetMetaData) Proxy.newProxyInstance(ResultSetMetaData.class.getClassLoader(), new Class<?>[]{ResultSetMetaData.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "getColumnCount":
+                                return 1;
+                            case "getColumnLabel":
+                                return "VALUE";
+                            case "getColumnType":
+                                return type;
+                            case "getPrecision":
+                                return precision;
+                            case "getScale":
+                                return scale;
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+        }
+    }
+}
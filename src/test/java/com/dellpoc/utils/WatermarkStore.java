@@ -0,0 +1,89 @@
+package com.dellpoc.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.util.Properties;
+
+/**
+ * Persists the high-water mark of each incremental validation in a local properties file, so that the
+ * next run only validates rows beyond it. The file defaults to validation-watermarks.properties in the
+ * working directory and can be moved with -Ddb.watermarkFile. Numeric marks are stored as N:value and
+ * timestamp marks as T:value.
+ */
+public class WatermarkStore {
+
+    private static final Logger log = LoggerFactory.getLogger(WatermarkStore.class);
+    private static final Path FILE = Paths.get(System.getProperty("db.watermarkFile", "validation-watermarks.properties"));
+
+    /**
+     * @param name The validation name.
+     * @return The stored mark as a BigDecimal or Timestamp, or null if the validation has not passed yet.
+     * @throws IOException If the state file cannot be read.
+     */
+    public static synchronized Object get(String name) throws IOException {
+        String stored = load().getProperty(name);
+        if (stored == null) {
+            return null;
+        }
+        String value = stored.substring(2);
+        return stored.startsWith("T:") ? Timestamp.valueOf(value) : new BigDecimal(value);
+    }
+
+    /**
+     * Stores a new mark for a validation. The file is replaced atomically, so an interrupted run never
+     * leaves it half written.
+     *
+     * @param name The validation name.
+     * @param mark The new mark, a Number or Timestamp.
+     * @throws IOException If the state file cannot be written.
+     */
+    public static synchronized void advance(String name, Object mark) throws IOException {
+        Properties properties = load();
+        properties.setProperty(name, mark instanceof Timestamp ? "T:" + mark : "N:" + new BigDecimal(mark.toString()).toPlainString());
+        save(properties);
+        log.info("Advanced watermark {} to {}", name, mark);
+    }
+
+    /**
+     * Forgets the mark of a validation so that its next run checks all rows again.
+     *
+     * @param name The validation name.
+     * @throws IOException If the state file cannot be written.
+     */
+    public static synchronized void reset(String name) throws IOException {
+        Properties properties = load();
+        if (properties.remove(name) != null) {
+            save(properties);
+        }
+    }
+
+    private static Properties load() throws IOException {
+        Properties properties = new Properties();
+        if (Files.exists(FILE)) {
+            try (Reader reader = Files.newBufferedReader(FILE)) {
+                properties.load(reader);
+            }
+        }
+        return properties;
+    }
+
+    private static void save(Properties properties) throws IOException {
+        Path parent = FILE.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, "watermarks", ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp)) {
+            properties.store(writer, "Incremental validation high-water marks");
+        }
+        Files.move(temp, FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}